@@ -0,0 +1,66 @@
+package me.zhennan.tool.easy.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import me.zhennan.tool.easy.core.EasyProvider;
+
+/**
+ * 批量生成互不相同的服务类型和 Feature 类型
+ *
+ * EasyFeatureManager 以 Feature 的类名去重, 索引以服务类型为键. 因此压测需要上千个不同的类.
+ * 这里为每个类使用一个独立的 ClassLoader 生成动态代理类.
+ */
+public final class FakeClasses {
+
+    /**
+     * 生成的服务类型实现的标记接口
+     */
+    public interface FakeService { }
+
+    private FakeClasses() {
+    }
+
+    /**
+     * @return count 个不同的服务类型
+     */
+    public static Class<?>[] services(int count) {
+        Class<?>[] result = new Class<?>[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = Proxy.newProxyInstance(newLoader(), new Class<?>[]{FakeService.class}, (proxy, method, args) -> null).getClass();
+        }
+        return result;
+    }
+
+    /**
+     * @param services 服务类型. 按顺序平均分给各个 Feature
+     * @param count Feature 数量
+     * @return count 个不同类型的 Feature. 方法调用通过反射转发给 {@link FakeFeature}
+     */
+    @SuppressWarnings("unchecked")
+    public static EasyProvider<Object>[] features(Class<?>[] services, int count) {
+        EasyProvider<Object>[] result = new EasyProvider[count];
+        int size = (services.length + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            int from = Math.min(services.length, i * size);
+            int to = Math.min(services.length, from + size);
+            FakeFeature delegate = new FakeFeature(new HashSet<>(Arrays.asList(services).subList(from, to)));
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return method.invoke(delegate, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            result[i] = (EasyProvider<Object>) Proxy.newProxyInstance(newLoader(), new Class<?>[]{EasyProvider.class}, handler);
+        }
+        return result;
+    }
+
+    private static ClassLoader newLoader() {
+        return new ClassLoader(FakeClasses.class.getClassLoader()) { };
+    }
+}
@@ -0,0 +1,39 @@
+package me.zhennan.tool.easy.benchmark;
+
+import java.util.Set;
+
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.core.EasyProvider;
+
+/**
+ * 提供一组服务的 Feature. 每次 create 返回一个新的 {@link FakeProxy}
+ */
+public class FakeFeature implements EasyProvider<Object> {
+
+    private final Set<Class<?>> mServiceClasses;
+    private volatile FakeProxy<?> mLastProxy = null;
+
+    public FakeFeature(Set<Class<?>> serviceClasses) {
+        this.mServiceClasses = serviceClasses;
+    }
+
+    @Override
+    public <EasyService> boolean contains(Class<EasyService> serviceClass) {
+        return mServiceClasses.contains(serviceClass);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <EasyService> EasyServiceProxy<EasyService> create(Class<EasyService> serviceClass, Object owner) {
+        FakeProxy<EasyService> proxy = new FakeProxy<>(serviceClass, (EasyService) new Object());
+        mLastProxy = proxy;
+        return proxy;
+    }
+
+    /**
+     * @return 最近一次创建的服务代理
+     */
+    public FakeProxy<?> lastProxy() {
+        return mLastProxy;
+    }
+}
@@ -0,0 +1,23 @@
+package me.zhennan.tool.easy.benchmark;
+
+/**
+ * 模拟的所有者. 相当于 Android 上的 Context
+ */
+public class FakeOwner {
+
+    private final FakeOwner mRoot;
+
+    /**
+     * @param root 所属的根所有者. 为空时自身就是根所有者
+     */
+    public FakeOwner(FakeOwner root) {
+        this.mRoot = null == root ? this : root;
+    }
+
+    /**
+     * @return 所属的根所有者
+     */
+    public FakeOwner root() {
+        return mRoot;
+    }
+}
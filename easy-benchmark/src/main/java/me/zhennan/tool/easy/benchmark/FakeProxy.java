@@ -0,0 +1,61 @@
+package me.zhennan.tool.easy.benchmark;
+
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.EasyServiceProxy;
+
+/**
+ * 同步可用的服务代理. 可以通过 {@link #publish(Object)} 模拟连接状态变化
+ */
+public class FakeProxy<T> implements EasyServiceProxy<T> {
+
+    private final Class<T> mServiceClass;
+    private final T mService;
+    private BiConsumer<T, Class<T>> mConsumer = null;
+    private boolean mStartup = false;
+
+    public FakeProxy(Class<T> serviceClass, T service) {
+        this.mServiceClass = serviceClass;
+        this.mService = service;
+    }
+
+    /**
+     * 模拟连接建立 (service 不为空) 或者断开 (service 为空)
+     */
+    public void publish(T service) {
+        BiConsumer<T, Class<T>> consumer = mConsumer;
+        if (null != consumer) {
+            consumer.accept(service, mServiceClass);
+        }
+    }
+
+    @Override
+    public T provide() {
+        return mStartup ? mService : null;
+    }
+
+    @Override
+    public void asyncProvide(BiConsumer<T, Class<T>> consumer) {
+        mConsumer = consumer;
+    }
+
+    @Override
+    public boolean isStartup() {
+        return mStartup;
+    }
+
+    @Override
+    public void startup() {
+        mStartup = true;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return !mStartup;
+    }
+
+    @Override
+    public void shutdown() {
+        mStartup = false;
+    }
+}
@@ -0,0 +1,90 @@
+package me.zhennan.tool.easy.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.EasyResolver;
+import me.zhennan.tool.easy.benchmark.FakeClasses;
+import me.zhennan.tool.easy.benchmark.FakeOwner;
+import me.zhennan.tool.easy.benchmark.FakeFeature;
+
+/**
+ * 客户端组件的创建与销毁
+ *
+ * churn: 一个 Activity 从 startup, require services 个服务, 到 shutdown 的完整过程.
+ * 宿主上另有一个常驻客户端持有所有服务, 因此服务代理不会随客户端反复创建
+ * requireUnregister: 常驻客户端 (已经 require services 个服务) 上一个消费者 require 一个服务, 再注销这个消费者
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EasyComponentClientBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int services;
+
+    private EasyEngine<Object> mEngine;
+    private FakeOwner mApplication;
+    private EasyComponentClient mResident;
+    private Class<Object>[] mServices;
+    private long mAccepted = 0;
+    private final BiConsumer<Object, Class<Object>> mConsumer = (service, serviceClass) -> mAccepted++;
+    private final BiConsumer<Object, Class<Object>> mOther = (service, serviceClass) -> mAccepted++;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        mServices = (Class<Object>[]) FakeClasses.services(services);
+
+        mEngine = new EasyEngine<>(owner -> ((FakeOwner) owner).root());
+        mEngine.use(new FakeFeature(new HashSet<>(Arrays.asList(mServices))));
+
+        mApplication = new FakeOwner(null);
+        mEngine.startup(mApplication);
+
+        FakeOwner resident = new FakeOwner(mApplication);
+        mEngine.startup(resident);
+        mResident = (EasyComponentClient) mEngine.from(resident);
+        for (Class<Object> service : mServices) {
+            mResident.require(service, mConsumer);
+        }
+    }
+
+    @Benchmark
+    public long churn() {
+        FakeOwner activity = new FakeOwner(mApplication);
+        mEngine.startup(activity);
+
+        EasyResolver resolver = mEngine.from(activity);
+        for (Class<Object> service : mServices) {
+            resolver.require(service, mConsumer);
+        }
+
+        mEngine.shutdown(activity);
+        return mAccepted;
+    }
+
+    @Benchmark
+    public long requireUnregister() {
+        mResident.require(mServices[0], mOther);
+        mResident.unregister(mOther);
+        return mAccepted;
+    }
+}
@@ -0,0 +1,89 @@
+package me.zhennan.tool.easy.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.benchmark.FakeFeature;
+import me.zhennan.tool.easy.benchmark.FakeProxy;
+
+/**
+ * 宿主组件
+ *
+ * registerUnregister: 已有 consumers 个消费者时, 注册并注销一个消费者
+ * resolve: 服务已经可用时解决一个依赖
+ * fanOut: 服务状态变化时分发给 consumers 个消费者
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EasyComponentHostBenchmark {
+
+    public interface Service { }
+
+    @Param({"1", "10", "100"})
+    public int consumers;
+
+    private EasyComponentHost<Object> mHost;
+    private FakeProxy<Object> mProxy;
+    private Object mService;
+    private long mAccepted = 0;
+    private final BiConsumer<Object, Class<Object>> mConsumer = (service, serviceClass) -> mAccepted++;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        FakeFeature feature = new FakeFeature(Collections.singleton(Service.class));
+        manager.use(feature);
+
+        mHost = new EasyComponentHost<>(new Object(), manager);
+        mHost.startup();
+        for (int i = 0; i < consumers; i++) {
+            mHost.register(Service.class, (BiConsumer<Object, Class<Object>>) (service, serviceClass) -> mAccepted++);
+        }
+
+        mProxy = (FakeProxy<Object>) feature.lastProxy();
+        mService = mProxy.provide();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mHost.shutdown();
+    }
+
+    @Benchmark
+    public long registerUnregister() {
+        mHost.register(Service.class, mConsumer);
+        mHost.unregister(mConsumer);
+        return mAccepted;
+    }
+
+    @Benchmark
+    public long resolve() {
+        mHost.resolve(Service.class, mConsumer);
+        return mAccepted;
+    }
+
+    @Benchmark
+    public long fanOut() {
+        mProxy.publish(mService);
+        return mAccepted;
+    }
+}
@@ -0,0 +1,82 @@
+package me.zhennan.tool.easy.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.zhennan.tool.easy.benchmark.FakeClasses;
+
+/**
+ * Feature 查找
+ *
+ * indexedLookup: 已经建立索引的服务查找. 与 Feature 数量无关
+ * missingLookup: 已经记录为不存在的服务查找
+ * coldStartup: 注册全部 Feature 后第一次查找最后一个 Feature 的服务. 与 Feature 数量线性相关
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EasyFeatureManagerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int features;
+
+    private Class<?>[] mServices;
+    private Class<?> mMissing;
+    private EasyProvider<Object>[] mFeatures;
+    private EasyFeatureManager<Object> mManager;
+    private int mCursor = 0;
+
+    @Setup
+    public void setup() {
+        Class<?>[] classes = FakeClasses.services(features + 1);
+        mServices = new Class<?>[features];
+        System.arraycopy(classes, 0, mServices, 0, features);
+        mMissing = classes[features];
+        mFeatures = FakeClasses.features(mServices, features);
+
+        mManager = new EasyFeatureManager<>();
+        for (EasyProvider<Object> feature : mFeatures) {
+            mManager.use(feature);
+        }
+
+        // 建立索引
+        for (Class<?> service : mServices) {
+            mManager.contains(service);
+        }
+        mManager.contains(mMissing);
+    }
+
+    @Benchmark
+    public boolean indexedLookup() {
+        mCursor = (mCursor + 1) % mServices.length;
+        return mManager.contains(mServices[mCursor]);
+    }
+
+    @Benchmark
+    public boolean missingLookup() {
+        return mManager.contains(mMissing);
+    }
+
+    @Benchmark
+    public boolean coldStartup() {
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        for (EasyProvider<Object> feature : mFeatures) {
+            manager.use(feature);
+        }
+        return manager.contains(mServices[mServices.length - 1]);
+    }
+}
@@ -0,0 +1,267 @@
+package me.zhennan.tool.easy.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * EasyFeature 注册表生成器
+ *
+ * 收集所有被 {@code @EasyProvides} 标注的 EasyFeature, 生成一个实现 {@code EasyFeatureRegistry} 的类.
+ * 生成的注册表通过服务类型直接查表找到 Feature, 并且 Feature 在第一次被查找到时才会实例化.
+ *
+ * 支持的参数:
+ * {@code easy.registry} 生成的注册表类名. 默认为 {@code me.zhennan.tool.easy.generated.EasyGeneratedRegistry}
+ *
+ * 多个模块都使用 easy-compiler 时, 只有一个模块 (通常是 app) 可以使用默认类名, 其他模块需要通过 {@code easy.registry}
+ * 指定各自的类名. 注册表类名已经存在于 classpath 中 (被依赖的模块已经生成了同名注册表) 时编译失败.
+ */
+public class EasyFeatureProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "me.zhennan.tool.easy.EasyProvides";
+    static final String FEATURE = "me.zhennan.tool.easy.EasyFeature";
+    static final String REGISTRY = "me.zhennan.tool.easy.EasyFeatureRegistry";
+    static final String OPTION_REGISTRY = "easy.registry";
+    static final String DEFAULT_REGISTRY = "me.zhennan.tool.easy.generated.EasyGeneratedRegistry";
+
+    // Feature 类名 -> 服务类名列表. 按照被发现的顺序保存
+    private final Map<String, List<String>> mFeatureMap = new LinkedHashMap<>();
+    // 服务类名 -> Feature 类名
+    private final Map<String, String> mServiceMap = new LinkedHashMap<>();
+    // 注册表是否已经生成
+    private boolean mGenerated = false;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_REGISTRY);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        if (null != annotation) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (mGenerated) {
+                    error(element, "@EasyProvides class generated after registry was written is not supported");
+                    continue;
+                }
+                collect((TypeElement) element);
+            }
+        }
+
+        // 在收集到 Feature 的普通轮次中生成一次, 不在 processingOver 轮次生成.
+        // 最后一轮生成的源码不会再经过注解处理, javac 会给出警告
+        if (!roundEnv.processingOver() && !mGenerated && !mFeatureMap.isEmpty()) {
+            mGenerated = true;
+            generate();
+        }
+        return true;
+    }
+
+    private void collect(TypeElement element) {
+        if (!check(element)) {
+            return;
+        }
+
+        String feature = element.getQualifiedName().toString();
+        List<String> services = new ArrayList<>();
+        for (TypeMirror serviceType : services(element)) {
+            if (TypeKind.DECLARED != serviceType.getKind()) {
+                error(element, "@EasyProvides service[" + serviceType + "] must be a class or interface");
+                continue;
+            }
+
+            String service = ((TypeElement) ((DeclaredType) serviceType).asElement()).getQualifiedName().toString();
+            String exist = mServiceMap.get(service);
+            if (null != exist) {
+                if (!exist.equals(feature)) {
+                    error(element, "Service[" + service + "] is provided by both " + exist + " and " + feature);
+                }
+                continue;
+            }
+            mServiceMap.put(service, feature);
+            services.add(service);
+        }
+        mFeatureMap.put(feature, services);
+    }
+
+    private boolean check(TypeElement element) {
+        if (ElementKind.CLASS != element.getKind() || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(element, "@EasyProvides can only be used on concrete class");
+            return false;
+        }
+
+        if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+            error(element, "@EasyProvides class must be public");
+            return false;
+        }
+
+        if (null != element.getEnclosingElement() && ElementKind.PACKAGE != element.getEnclosingElement().getKind()
+                && !element.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "@EasyProvides class must be top level or static nested class");
+            return false;
+        }
+
+        TypeElement feature = processingEnv.getElementUtils().getTypeElement(FEATURE);
+        if (null == feature || !processingEnv.getTypeUtils().isAssignable(element.asType(), processingEnv.getTypeUtils().erasure(feature.asType()))) {
+            error(element, "@EasyProvides class must implement " + FEATURE);
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+
+        error(element, "@EasyProvides class must have a public no-arg constructor");
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TypeMirror> services(TypeElement element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!ANNOTATION.contentEquals(type.getQualifiedName())) {
+                continue;
+            }
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    List<TypeMirror> result = new ArrayList<>();
+                    for (AnnotationValue value : (List<? extends AnnotationValue>) entry.getValue().getValue()) {
+                        result.add((TypeMirror) value.getValue());
+                    }
+                    return result;
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private void generate() {
+        String className = processingEnv.getOptions().get(OPTION_REGISTRY);
+        if (null == className || className.isEmpty()) {
+            className = DEFAULT_REGISTRY;
+        }
+
+        // 同名注册表来自被依赖的模块. 打包时两个同名类会冲突, 或者其中一个注册表被静默覆盖
+        if (null != processingEnv.getElementUtils().getTypeElement(className)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Registry[" + className + "] already exists in classpath, " +
+                    "it may be generated by another module. Use a different class name by annotation processor option -A" + OPTION_REGISTRY + "=<class name>");
+            return;
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className);
+            try (Writer writer = file.openWriter()) {
+                writer.write(RegistryWriter.write(className, mFeatureMap));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Generate registry[" + className + "] failed: " + e);
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 注册表源码生成
+     */
+    static class RegistryWriter {
+
+        static String write(String className, Map<String, List<String>> features) {
+            int split = className.lastIndexOf('.');
+            String packageName = 0 > split ? "" : className.substring(0, split);
+            String simpleName = className.substring(split + 1);
+
+            StringBuilder out = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                out.append("package ").append(packageName).append(";\n\n");
+            }
+
+            out.append("/**\n")
+                    .append(" * Generated by easy-compiler. Do not modify!\n")
+                    .append(" */\n")
+                    .append("public final class ").append(simpleName).append(" implements ").append(REGISTRY).append(" {\n\n");
+
+            int count = features.size();
+            int services = 0;
+            for (List<String> list : features.values()) {
+                services += list.size();
+            }
+
+            out.append("    private static final java.util.Map<Class<?>, Integer> INDEX = new java.util.HashMap<>(")
+                    .append(Math.max(16, services * 4 / 3 + 1)).append(");\n\n");
+
+            out.append("    static {\n");
+            int slot = 0;
+            for (List<String> list : features.values()) {
+                for (String service : list) {
+                    out.append("        INDEX.put(").append(service).append(".class, ").append(slot).append(");\n");
+                }
+                slot++;
+            }
+            out.append("    }\n\n");
+
+            out.append("    private final ").append(FEATURE).append("[] mFeatures = new ").append(FEATURE).append("[").append(count).append("];\n\n");
+
+            out.append("    @Override\n")
+                    .append("    public ").append(FEATURE).append(" find(Class<?> serviceClass) {\n")
+                    .append("        Integer slot = INDEX.get(serviceClass);\n")
+                    .append("        return null == slot ? null : feature(slot);\n")
+                    .append("    }\n\n");
+
+            out.append("    private synchronized ").append(FEATURE).append(" feature(int slot) {\n")
+                    .append("        ").append(FEATURE).append(" feature = mFeatures[slot];\n")
+                    .append("        if (null == feature) {\n")
+                    .append("            switch (slot) {\n");
+            slot = 0;
+            for (String feature : features.keySet()) {
+                out.append("                case ").append(slot++).append(": feature = new ").append(feature).append("(); break;\n");
+            }
+            out.append("                default: throw new IllegalStateException(\"Unknown feature slot: \" + slot);\n")
+                    .append("            }\n")
+                    .append("            mFeatures[slot] = feature;\n")
+                    .append("        }\n")
+                    .append("        return feature;\n")
+                    .append("    }\n")
+                    .append("}\n");
+
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package me.zhennan.tool.easy.compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.*;
+
+public class EasyFeatureProcessorTest {
+
+    // easy 模块是 Android 工程. 这里用最小的同名接口代替
+    private static final String FEATURE = "package me.zhennan.tool.easy;\n" +
+            "public interface EasyFeature {\n" +
+            "    <S> boolean contains(Class<S> serviceClass);\n" +
+            "}\n";
+
+    private static final String REGISTRY = "package me.zhennan.tool.easy;\n" +
+            "public interface EasyFeatureRegistry {\n" +
+            "    EasyFeature find(Class<?> serviceClass);\n" +
+            "}\n";
+
+    private static final String ANNOTATION = "package me.zhennan.tool.easy;\n" +
+            "public @interface EasyProvides {\n" +
+            "    Class<?>[] value();\n" +
+            "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGenerateRegistry() throws Exception {
+        String feature = "package demo;\n" +
+                "import me.zhennan.tool.easy.*;\n" +
+                "@EasyProvides({demo.AService.class, demo.BService.class})\n" +
+                "public class DemoFeature implements EasyFeature {\n" +
+                "    public static int created = 0;\n" +
+                "    public DemoFeature() { created++; }\n" +
+                "    public <S> boolean contains(Class<S> serviceClass) { throw new IllegalStateException(); }\n" +
+                "}\n";
+
+        File out = compile(true,
+                source("demo/AService.java", "package demo; public interface AService {}"),
+                source("demo/BService.java", "package demo; public interface BService {}"),
+                source("demo/CService.java", "package demo; public interface CService {}"),
+                source("demo/DemoFeature.java", feature));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{out.toURI().toURL()})) {
+            Class<?> registryClass = loader.loadClass(EasyFeatureProcessor.DEFAULT_REGISTRY);
+            Object registry = registryClass.newInstance();
+            Method find = registryClass.getMethod("find", Class.class);
+            Class<?> featureClass = loader.loadClass("demo.DemoFeature");
+
+            // 查表之前不会实例化 Feature
+            assertEquals(0, featureClass.getField("created").getInt(null));
+
+            Object a = find.invoke(registry, loader.loadClass("demo.AService"));
+            Object b = find.invoke(registry, loader.loadClass("demo.BService"));
+            assertNotNull(a);
+            assertSame(a, b);
+            assertEquals(1, featureClass.getField("created").getInt(null));
+
+            assertNull(find.invoke(registry, loader.loadClass("demo.CService")));
+        }
+    }
+
+    @Test
+    public void testRejectInvalidFeature() throws Exception {
+        String feature = "package demo;\n" +
+                "import me.zhennan.tool.easy.*;\n" +
+                "@EasyProvides(demo.AService.class)\n" +
+                "public class DemoFeature implements EasyFeature {\n" +
+                "    private DemoFeature() {}\n" +
+                "    public <S> boolean contains(Class<S> serviceClass) { return false; }\n" +
+                "}\n";
+
+        compile(false,
+                source("demo/AService.java", "package demo; public interface AService {}"),
+                source("demo/DemoFeature.java", feature));
+
+        String duplicate = "package demo;\n" +
+                "import me.zhennan.tool.easy.*;\n" +
+                "@EasyProvides(demo.AService.class)\n" +
+                "public class OtherFeature implements EasyFeature {\n" +
+                "    public <S> boolean contains(Class<S> serviceClass) { return false; }\n" +
+                "}\n";
+
+        compile(false,
+                source("demo/AService.java", "package demo; public interface AService {}"),
+                source("demo/DemoFeature.java", duplicate.replace("OtherFeature", "DemoFeature")),
+                source("demo/OtherFeature.java", duplicate));
+
+        // 基本类型和数组不是服务类型
+        String primitive = "package demo;\n" +
+                "import me.zhennan.tool.easy.*;\n" +
+                "@EasyProvides({int.class, demo.AService[].class})\n" +
+                "public class DemoFeature implements EasyFeature {\n" +
+                "    public <S> boolean contains(Class<S> serviceClass) { return false; }\n" +
+                "}\n";
+
+        compile(false,
+                source("demo/AService.java", "package demo; public interface AService {}"),
+                source("demo/DemoFeature.java", primitive));
+    }
+
+    @Test
+    public void testRejectDuplicateRegistry() throws Exception {
+        String feature = "package demo;\n" +
+                "import me.zhennan.tool.easy.*;\n" +
+                "@EasyProvides(demo.AService.class)\n" +
+                "public class DemoFeature implements EasyFeature {\n" +
+                "    public <S> boolean contains(Class<S> serviceClass) { return false; }\n" +
+                "}\n";
+
+        File library = compile(true,
+                source("demo/AService.java", "package demo; public interface AService {}"),
+                source("demo/DemoFeature.java", feature));
+
+        String other = "package other;\n" +
+                "import me.zhennan.tool.easy.*;\n" +
+                "@EasyProvides(other.BService.class)\n" +
+                "public class OtherFeature implements EasyFeature {\n" +
+                "    public <S> boolean contains(Class<S> serviceClass) { return false; }\n" +
+                "}\n";
+
+        // 依赖的模块已经生成了默认注册表
+        compile(false, Arrays.asList("-cp", library.getAbsolutePath()),
+                source("other/BService.java", "package other; public interface BService {}"),
+                source("other/OtherFeature.java", other));
+
+        File out = compile(true, Arrays.asList("-cp", library.getAbsolutePath(), "-A" + EasyFeatureProcessor.OPTION_REGISTRY + "=other.OtherRegistry"),
+                source("other/BService.java", "package other; public interface BService {}"),
+                source("other/OtherFeature.java", other));
+        assertTrue(new File(out, "other/OtherRegistry.class").exists());
+    }
+
+    private File source(String path, String content) throws IOException {
+        File file = new File(folder.getRoot(), "src/" + path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private File compile(boolean expectSuccess, File... sources) throws IOException {
+        return compile(expectSuccess, new ArrayList<String>(), sources);
+    }
+
+    private File compile(boolean expectSuccess, List<String> options, File... sources) throws IOException {
+        List<File> files = new ArrayList<>(Arrays.asList(sources));
+        files.add(source("me/zhennan/tool/easy/EasyFeature.java", FEATURE));
+        files.add(source("me/zhennan/tool/easy/EasyFeatureRegistry.java", REGISTRY));
+        files.add(source("me/zhennan/tool/easy/EasyProvides.java", ANNOTATION));
+
+        File out = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager manager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = manager.getJavaFileObjectsFromFiles(files);
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            List<String> arguments = new ArrayList<>(Arrays.asList("-d", out.getAbsolutePath(), "-s", out.getAbsolutePath()));
+            arguments.addAll(options);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, manager, diagnostics, arguments, null, units);
+            task.setProcessors(Arrays.asList(new EasyFeatureProcessor()));
+            assertEquals(diagnostics.getDiagnostics().toString(), expectSuccess, task.call());
+
+            // 注册表不能在最后一轮生成, 否则 javac 会警告生成的源码不再经过注解处理
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                assertNotEquals(diagnostic.toString(), Diagnostic.Kind.WARNING, diagnostic.getKind());
+            }
+        }
+        return out;
+    }
+}
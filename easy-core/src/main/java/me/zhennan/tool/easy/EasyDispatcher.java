@@ -0,0 +1,46 @@
+package me.zhennan.tool.easy;
+
+import java.util.concurrent.Executor;
+
+import me.zhennan.tool.easy.core.EasyPlatform;
+
+/**
+ * 服务可用性回调的分发策略
+ *
+ * 除 {@link #INLINE} 以外, 回调都会被投递到其他线程执行, 因此一个耗时的消费者不会拖慢其他消费者.
+ * 投递执行之前, 同一个消费者收到的多次通知会被合并, 只回调最新的状态.
+ *
+ * @see EasyResolver#dispatcher(EasyDispatcher)
+ * @see EasyResolver#require(Class, EasyDispatcher, java.util.function.BiConsumer)
+ */
+public interface EasyDispatcher {
+
+    /**
+     * 在通知服务状态的线程上直接回调 (其他线程正在送达通知时由该线程按顺序回调). 不合并通知
+     */
+    EasyDispatcher INLINE = Runnable::run;
+
+    /**
+     * @param task 回调任务
+     */
+    void dispatch(Runnable task);
+
+    /**
+     * @return 投递到主线程回调. 主线程由当前安装的 {@link EasyPlatform} 决定. 每次返回同一个实例
+     */
+    static EasyDispatcher mainThread() {
+        return ExecutorDispatcher.MAIN_THREAD;
+    }
+
+    /**
+     * @param executor 回调执行器
+     * @return 投递到给定执行器回调. 相同执行器返回的分发策略相等
+     */
+    static EasyDispatcher executor(Executor executor) {
+        if (null == executor) {
+            throw new IllegalArgumentException("Given executor is Null");
+        }
+
+        return new ExecutorDispatcher(executor);
+    }
+}
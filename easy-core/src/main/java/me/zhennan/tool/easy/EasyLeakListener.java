@@ -0,0 +1,19 @@
+package me.zhennan.tool.easy;
+
+/**
+ * 组件泄漏监听
+ *
+ * 当一个已经 startup 的所有者 (Activity / Service) 没有调用对应的 shutdown, 并且已经销毁
+ * (或者已经被回收) 时, 引擎会自动关闭它的组件, 然后通知该监听.
+ *
+ * Android 上通过 {@code Easy.watchLeaks(EasyLeakListener)} 设置.
+ *
+ * @see me.zhennan.tool.easy.core.EasyEngine#watchLeaks(EasyLeakListener)
+ */
+public interface EasyLeakListener {
+
+    /**
+     * @param context 泄漏的组件描述 (类名@identityHashCode)
+     */
+    void onLeak(String context);
+}
@@ -0,0 +1,61 @@
+package me.zhennan.tool.easy;
+
+/**
+ * 生命周期指标监听
+ *
+ * 事件在连接调度线程或者 require 所在线程上同步回调, 实现需要线程安全并且足够轻量.
+ * 所有方法都有空实现, 只需要覆盖关心的事件. 内置的统计实现见 {@link me.zhennan.tool.easy.tool.EasyMetricsRecorder}.
+ *
+ * 连接名称: 标准连接流程为目标组件名 (或 action), 自定义连接流程为连接器类名.
+ *
+ * Android 上服务相关事件通过 {@code Easy.metrics(EasyMetrics)} 设置, 连接相关事件通过 {@code EasyConnection.metrics(EasyMetrics)}
+ * 为每个连接单独设置.
+ */
+public interface EasyMetrics {
+
+    /**
+     * 不做任何统计
+     */
+    EasyMetrics NONE = new EasyMetrics() {};
+
+    /**
+     * 连接建立
+     * @param connection 连接名称
+     * @param latencyNanos 从发起连接到 onServiceConnected 的耗时 (纳秒)
+     */
+    default void onBind(String connection, long latencyNanos) {}
+
+    /**
+     * 连接断开
+     * @param connection 连接名称
+     */
+    default void onDisconnect(String connection) {}
+
+    /**
+     * 调度了一次重连
+     * @param connection 连接名称
+     * @param attempt 本次是连续的第几次重连, 从 1 开始
+     */
+    default void onRetry(String connection, int attempt) {}
+
+    /**
+     * 重连策略放弃了重连
+     * @param connection 连接名称
+     * @param attempts 放弃前已经连续重连的次数
+     */
+    default void onGiveUp(String connection, int attempts) {}
+
+    /**
+     * 服务第一次可用
+     * @param serviceClass 服务类型
+     * @param waitNanos 从第一次 require 到服务可用的耗时 (纳秒)
+     */
+    default void onFirstService(Class<?> serviceClass, long waitNanos) {}
+
+    /**
+     * 服务的消费者数量变化
+     * @param serviceClass 服务类型
+     * @param consumers 当前的消费者数量
+     */
+    default void onConsumerCount(Class<?> serviceClass, int consumers) {}
+}
@@ -0,0 +1,111 @@
+package me.zhennan.tool.easy;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 简单接口依赖解决器
+ */
+public interface EasyResolver {
+
+    /**
+     * {@link #requireAsync(Class)} 的默认超时时长 (毫秒)
+     */
+    long DEFAULT_REQUIRE_TIMEOUT_MILLIS = 10 * 1000;
+
+    /**
+     * 服务依赖解决接口
+     * @param serviceClass 服务类型
+     * @param consumer 依赖解决回调接口
+     * @param <EasyService> 服务类型定义
+     */
+    <EasyService> void require(Class<EasyService> serviceClass, BiConsumer<EasyService, Class<EasyService>> consumer);
+
+    /**
+     * 以指定的分发策略解决服务依赖
+     * @param serviceClass 服务类型
+     * @param dispatcher 回调分发策略
+     * @param consumer 依赖解决回调接口
+     * @param <EasyService> 服务类型定义
+     * @see #require(Class, BiConsumer)
+     */
+    <EasyService> void require(Class<EasyService> serviceClass, EasyDispatcher dispatcher, BiConsumer<EasyService, Class<EasyService>> consumer);
+
+    /**
+     * 设置该组件默认的回调分发策略. 只影响之后的 require. 默认为 {@link EasyDispatcher#INLINE}
+     * @param dispatcher 回调分发策略
+     */
+    void dispatcher(EasyDispatcher dispatcher);
+
+    /**
+     * 异步获取服务. 超时时长为 {@link #DEFAULT_REQUIRE_TIMEOUT_MILLIS}
+     * @see #requireAsync(Class, long, TimeUnit)
+     */
+    <EasyService> CompletableFuture<EasyService> requireAsync(Class<EasyService> serviceClass);
+
+    /**
+     * 异步获取服务
+     *
+     * 服务可用时 future 以服务实例完成. 超时仍不可用则以 {@link TimeoutException} 失败.
+     * future 完成 (包括超时和取消) 后注销内部的消费者. 客户端组件在关闭之前仍然保持对服务的依赖;
+     * 宿主上没有其他消费者的服务按正常流程释放 (或进入保活期).
+     *
+     * @param serviceClass 服务类型
+     * @param timeout 超时时长
+     * @param unit 超时时长单位
+     * @param <EasyService> 服务类型定义
+     * @return 服务实例的 future
+     */
+    <EasyService> CompletableFuture<EasyService> requireAsync(Class<EasyService> serviceClass, long timeout, TimeUnit unit);
+
+    /**
+     * 立即返回当前可用的服务实例. 不会启动服务, 也不会等待
+     *
+     * 只对该组件已经 require 过的服务有效. 服务断开之后返回 null, 直到重新连接.
+     *
+     * @param serviceClass 服务类型
+     * @param <EasyService> 服务类型定义
+     * @return 服务实例. 服务当前不可用时返回 null
+     */
+    <EasyService> EasyService peek(Class<EasyService> serviceClass);
+
+    /**
+     * 阻塞等待服务可用. 只能在工作线程调用, 在主线程调用会抛出 {@link IllegalStateException}
+     *
+     * @param serviceClass 服务类型
+     * @param timeout 超时时长
+     * @param unit 超时时长单位
+     * @param <EasyService> 服务类型定义
+     * @return 服务实例
+     * @throws TimeoutException 超时仍不可用
+     * @throws InterruptedException 等待被中断
+     */
+    <EasyService> EasyService await(Class<EasyService> serviceClass, long timeout, TimeUnit unit) throws TimeoutException, InterruptedException;
+
+    /**
+     * 批量服务依赖解决接口
+     *
+     * 所有服务的代理会同时启动. 当所有服务第一次都可用时, consumer 被调用一次.
+     *
+     * @param serviceClasses 服务类型
+     * @param consumer 所有服务可用后的回调
+     */
+    void requireAll(Set<Class<?>> serviceClasses, Consumer<EasyServices> consumer);
+
+    /**
+     * 批量异步获取服务
+     *
+     * 所有服务的代理会同时启动. 所有服务都可用时 future 完成.
+     * 超时仍有服务不可用则以 {@link TimeoutException} 失败.
+     *
+     * @param serviceClasses 服务类型
+     * @param timeout 超时时长
+     * @param unit 超时时长单位
+     * @return 所有服务的 future
+     */
+    CompletableFuture<EasyServices> requireAllAsync(Set<Class<?>> serviceClasses, long timeout, TimeUnit unit);
+}
@@ -0,0 +1,30 @@
+package me.zhennan.tool.easy;
+
+/**
+ * 服务优先级
+ *
+ * 内存紧张时, 宿主按优先级从低到高解绑服务. 被解绑的服务的消费者收到 null, 下一次 require 时自动重新绑定.
+ * 由 Feature 按服务类型声明.
+ */
+public enum EasyServicePriority {
+
+    /**
+     * 应用进入后台即可解绑
+     */
+    LOW,
+
+    /**
+     * 默认. 系统内存紧张时解绑
+     */
+    NORMAL,
+
+    /**
+     * 只在系统内存严重不足时解绑
+     */
+    HIGH,
+
+    /**
+     * 从不因内存压力或数量上限解绑
+     */
+    CRITICAL
+}
@@ -0,0 +1,29 @@
+package me.zhennan.tool.easy;
+
+/**
+ * 服务作用域
+ *
+ * 决定服务代理由谁创建, 被谁共享, 以及什么时候关闭. 由 Feature 按服务类型声明.
+ */
+public enum EasyServiceScope {
+
+    /**
+     * 宿主共享 (默认). 由宿主组件创建并被所有组件共享. 最后一个消费者释放 (以及保活期结束) 后关闭
+     */
+    HOST,
+
+    /**
+     * 进程单例. 只创建一次, 没有消费者以及宿主关闭之后仍然保持连接
+     */
+    SINGLETON,
+
+    /**
+     * 组件独享. 每个组件 (Activity / Service) 创建自己的服务代理, 组件内的消费者共享. 随组件关闭
+     */
+    COMPONENT,
+
+    /**
+     * 临时. 每次 require 创建一个新的服务代理, 只服务于该次 require 的消费者. 随组件关闭
+     */
+    TRANSIENT
+}
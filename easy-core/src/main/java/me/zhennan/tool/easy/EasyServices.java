@@ -0,0 +1,45 @@
+package me.zhennan.tool.easy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一组已经可用的服务
+ *
+ * @see EasyResolver#requireAll(Set, java.util.function.Consumer)
+ * @see EasyResolver#requireAllAsync(Set, long, java.util.concurrent.TimeUnit)
+ */
+public final class EasyServices {
+
+    private final Map<Class<?>, Object> mServiceMap;
+
+    public EasyServices(Map<Class<?>, Object> serviceMap) {
+        if (null == serviceMap) {
+            throw new IllegalArgumentException("Given service map is Null");
+        }
+
+        this.mServiceMap = Collections.unmodifiableMap(serviceMap);
+    }
+
+    /**
+     * @param serviceClass 服务类型
+     * @param <EasyService> 服务类型定义
+     * @return 服务实例. 不在该组内的服务返回 null
+     */
+    public <EasyService> EasyService get(Class<EasyService> serviceClass) {
+        return serviceClass.cast(mServiceMap.get(serviceClass));
+    }
+
+    /**
+     * @return 该组内的所有服务类型
+     */
+    public Set<Class<?>> classes() {
+        return mServiceMap.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return "EasyServices{" + mServiceMap.keySet() + "}";
+    }
+}
@@ -0,0 +1,196 @@
+package me.zhennan.tool.easy;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import me.zhennan.tool.easy.core.EasyPlatform;
+
+/**
+ * Easy 的性能追踪
+ *
+ * 开启后, 组件启动, 服务注册 / 解决, 服务连接以及消费者回调会:
+ * 1. 写入系统 trace ({@link EasyPlatform#beginSection(String)}, Android 上为 android.os.Trace), 可以在 systrace / Perfetto 中看到
+ * 2. 写入内存中的环形时间线, 可以通过 {@link #exportTimeline(Writer)} 导出为 Chrome / Perfetto 的 JSON 格式
+ *
+ * 关闭时每个追踪点只有一次 volatile 读. 需要在启动任何组件之前开启,
+ * 运行期间切换开关可能导致一个 section 没有闭合.
+ *
+ * <pre>
+ *     boolean traced = EasyTrace.begin(EasyTrace.SECTION_STARTUP);
+ *     try {
+ *         ...
+ *     } finally {
+ *         if (traced) EasyTrace.end();
+ *     }
+ * </pre>
+ */
+public final class EasyTrace {
+
+    public static final String SECTION_STARTUP = "Easy.startup";
+    public static final String SECTION_REGISTER = "Easy.register";
+    public static final String SECTION_RESOLVE = "Easy.resolve";
+    public static final String SECTION_CONNECT = "Easy.makeConnection";
+    public static final String SECTION_DISPATCH = "Easy.dispatch";
+
+    private static volatile boolean sEnabled = false;
+    private static volatile boolean sSystrace = false;
+    private static volatile Timeline sTimeline = null;
+
+    private EasyTrace() {
+    }
+
+    /**
+     * 开启追踪
+     * @param systrace 是否写入系统 trace
+     * @param timelineCapacity 时间线保存的最大事件数. 为 0 时不记录时间线
+     */
+    public static synchronized void enable(boolean systrace, int timelineCapacity) {
+        if (0 > timelineCapacity) {
+            throw new IllegalArgumentException("Given timeline capacity is negative");
+        }
+
+        sSystrace = systrace;
+        sTimeline = 0 == timelineCapacity ? null : new Timeline(timelineCapacity);
+        sEnabled = systrace || 0 < timelineCapacity;
+    }
+
+    /**
+     * 关闭追踪. 已经记录的时间线保留到下一次 {@link #enable(boolean, int)}
+     */
+    public static synchronized void disable() {
+        sEnabled = false;
+        sSystrace = false;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * 开始一个 section
+     * @param section section 名称. 应该使用常量, 避免每次拼接字符串
+     * @return 是否真的开始了. 为 true 时需要调用 {@link #end()}
+     */
+    public static boolean begin(String section) {
+        if (!sEnabled) {
+            return false;
+        }
+
+        if (sSystrace) {
+            EasyPlatform.current().beginSection(section);
+        }
+
+        Timeline timeline = sTimeline;
+        if (null != timeline) {
+            timeline.add(section, Timeline.PHASE_BEGIN);
+        }
+        return true;
+    }
+
+    /**
+     * 结束当前线程最近开始的 section
+     */
+    public static void end() {
+        if (sSystrace) {
+            EasyPlatform.current().endSection();
+        }
+
+        Timeline timeline = sTimeline;
+        if (null != timeline) {
+            timeline.add(null, Timeline.PHASE_END);
+        }
+    }
+
+    /**
+     * 以 Chrome / Perfetto 的 JSON 格式导出时间线. 可以直接在 ui.perfetto.dev 或 chrome://tracing 中打开
+     * @param writer 输出
+     */
+    public static void exportTimeline(Writer writer) throws IOException {
+        if (null == writer) {
+            throw new IllegalArgumentException("Given writer is Null");
+        }
+
+        Timeline timeline = sTimeline;
+        if (null == timeline) {
+            writer.write("{\"traceEvents\":[]}");
+        } else {
+            timeline.export(writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * @see #exportTimeline(Writer)
+     */
+    public static String exportTimeline() {
+        StringWriter writer = new StringWriter();
+        try {
+            exportTimeline(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 环形时间线. 写满之后覆盖最早的事件
+     */
+    private static final class Timeline {
+
+        static final char PHASE_BEGIN = 'B';
+        static final char PHASE_END = 'E';
+
+        private final String[] mNames;
+        private final char[] mPhases;
+        private final long[] mTimes;
+        private final long[] mThreads;
+        private long mCount = 0;
+
+        Timeline(int capacity) {
+            mNames = new String[capacity];
+            mPhases = new char[capacity];
+            mTimes = new long[capacity];
+            mThreads = new long[capacity];
+        }
+
+        synchronized void add(String name, char phase) {
+            int index = (int) (mCount % mNames.length);
+            mNames[index] = name;
+            mPhases[index] = phase;
+            mTimes[index] = System.nanoTime();
+            mThreads[index] = Thread.currentThread().getId();
+            mCount++;
+        }
+
+        synchronized void export(Writer writer) throws IOException {
+            int pid = EasyPlatform.current().processId();
+            long start = Math.max(0, mCount - mNames.length);
+
+            writer.write("{\"traceEvents\":[");
+            for (long i = start; i < mCount; i++) {
+                int index = (int) (i % mNames.length);
+                if (i > start) {
+                    writer.write(',');
+                }
+
+                writer.write("{\"ph\":\"");
+                writer.write(mPhases[index]);
+                writer.write('"');
+                if (null != mNames[index]) {
+                    writer.write(",\"name\":\"");
+                    writer.write(mNames[index].replace("\\", "\\\\").replace("\"", "\\\""));
+                    writer.write('"');
+                }
+                writer.write(",\"cat\":\"easy\",\"ts\":");
+                writer.write(Long.toString(mTimes[index] / 1000));
+                writer.write(",\"pid\":");
+                writer.write(Integer.toString(pid));
+                writer.write(",\"tid\":");
+                writer.write(Long.toString(mThreads[index]));
+                writer.write('}');
+            }
+            writer.write("]}");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package me.zhennan.tool.easy;
+
+import java.util.concurrent.Executor;
+
+import me.zhennan.tool.easy.core.EasyPlatform;
+
+/**
+ * 投递到执行器的分发策略. 按执行器判断相等, 同一个消费者以相同的执行器重复注册时可以去重
+ */
+final class ExecutorDispatcher implements EasyDispatcher {
+
+    static final EasyDispatcher MAIN_THREAD = new ExecutorDispatcher(task -> EasyPlatform.current().executeOnMainThread(task));
+
+    private final Executor mExecutor;
+
+    ExecutorDispatcher(Executor executor) {
+        this.mExecutor = executor;
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        mExecutor.execute(task);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExecutorDispatcher)) return false;
+        return mExecutor.equals(((ExecutorDispatcher) o).mExecutor);
+    }
+
+    @Override
+    public int hashCode() {
+        return mExecutor.hashCode();
+    }
+}
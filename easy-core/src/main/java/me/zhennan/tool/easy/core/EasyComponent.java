@@ -0,0 +1,425 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import me.zhennan.tool.easy.EasyDispatcher;
+import me.zhennan.tool.easy.EasyResolver;
+import me.zhennan.tool.easy.EasyServices;
+import me.zhennan.tool.easy.EasyTrace;
+
+abstract class EasyComponent implements EasyResolver {
+
+    static final BiConsumer[] NO_CONSUMERS = new BiConsumer[0];
+
+    private volatile EasyDispatcher mDispatcher = EasyDispatcher.INLINE;
+
+    /**
+     * Component Startup
+     */
+    public abstract void startup();
+
+    /**
+     * Component Shutdown
+     */
+    public abstract void shutdown();
+
+    @Override
+    public void dispatcher(EasyDispatcher dispatcher) {
+        if (null == dispatcher) {
+            throw new IllegalArgumentException("Given dispatcher is Null");
+        }
+
+        mDispatcher = dispatcher;
+    }
+
+    @Override
+    public <EasyService> void require(Class<EasyService> serviceClass, BiConsumer<EasyService, Class<EasyService>> consumer) {
+        subscribe((Class<Object>) serviceClass, dispatched(consumer, mDispatcher));
+    }
+
+    @Override
+    public <EasyService> void require(Class<EasyService> serviceClass, EasyDispatcher dispatcher, BiConsumer<EasyService, Class<EasyService>> consumer) {
+        if (null == dispatcher) {
+            throw new IllegalArgumentException("Given dispatcher is Null");
+        }
+
+        subscribe((Class<Object>) serviceClass, dispatched(consumer, dispatcher));
+    }
+
+    /**
+     * 注册已经按照分发策略包装过的消费者
+     */
+    protected abstract void subscribe(Class<Object> serviceClass, BiConsumer consumer);
+
+    /**
+     * 注销 {@link #subscribe(Class, BiConsumer)} 注册的消费者
+     */
+    protected abstract void unsubscribe(BiConsumer consumer);
+
+    /**
+     * 写时复制地加入消费者. 按 equals 去重: 包装同一个消费者和分发策略的 {@link DispatchedConsumer} 视为同一个
+     * @return 加入后的消费者数组. 已经存在时返回原数组
+     */
+    static BiConsumer[] append(BiConsumer[] consumers, BiConsumer consumer) {
+        for (BiConsumer existing : consumers) {
+            if (existing == consumer || existing.equals(consumer)) {
+                return consumers;
+            }
+        }
+
+        BiConsumer[] result = Arrays.copyOf(consumers, consumers.length + 1);
+        result[consumers.length] = consumer;
+        return result;
+    }
+
+    /**
+     * 写时复制地移除消费者. 给定未经包装的消费者时, 同时移除包装它的所有 {@link DispatchedConsumer}
+     * @return 移除后的消费者数组. 不存在时返回原数组
+     */
+    static BiConsumer[] remove(BiConsumer[] consumers, BiConsumer consumer) {
+        int count = 0;
+        for (BiConsumer existing : consumers) {
+            if (matches(existing, consumer)) {
+                count++;
+            }
+        }
+
+        if (0 == count) {
+            return consumers;
+        }
+
+        if (count == consumers.length) {
+            return NO_CONSUMERS;
+        }
+
+        BiConsumer[] result = new BiConsumer[consumers.length - count];
+        int index = 0;
+        for (BiConsumer existing : consumers) {
+            if (!matches(existing, consumer)) {
+                result[index++] = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 数组中是否有 {@link #unwrap(BiConsumer)} 后与给定消费者相同的消费者
+     */
+    static boolean contains(BiConsumer[] consumers, BiConsumer consumer) {
+        for (BiConsumer existing : consumers) {
+            if (matches(existing, consumer)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 分发策略包装之前的消费者. 注销时按它查找
+     */
+    static BiConsumer unwrap(BiConsumer consumer) {
+        return consumer instanceof DispatchedConsumer ? ((DispatchedConsumer) consumer).mConsumer : consumer;
+    }
+
+    /**
+     * @return 已经注册的消费者是否就是给定的消费者, 或者是包装了给定 (未经包装的) 消费者的 {@link DispatchedConsumer}
+     */
+    static boolean matches(BiConsumer existing, BiConsumer consumer) {
+        if (existing == consumer || existing.equals(consumer)) {
+            return true;
+        }
+        return !(consumer instanceof DispatchedConsumer) && existing instanceof DispatchedConsumer
+                && ((DispatchedConsumer) existing).mConsumer.equals(consumer);
+    }
+
+    private static BiConsumer dispatched(BiConsumer consumer, EasyDispatcher dispatcher) {
+        if (EasyDispatcher.INLINE == dispatcher || null == consumer) {
+            return consumer;
+        }
+        return new DispatchedConsumer(consumer, dispatcher);
+    }
+
+    @Override
+    public <EasyService> CompletableFuture<EasyService> requireAsync(Class<EasyService> serviceClass) {
+        return requireAsync(serviceClass, DEFAULT_REQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public <EasyService> CompletableFuture<EasyService> requireAsync(Class<EasyService> serviceClass, long timeout, TimeUnit unit) {
+        if (null == unit) {
+            throw new IllegalArgumentException("Given time unit is Null");
+        }
+
+        CompletableFuture<EasyService> future = new CompletableFuture<>();
+        BiConsumer consumer = dispatched((service, theClass) -> {
+            if (null != service) {
+                future.complete((EasyService) service);
+            }
+        }, mDispatcher);
+        try {
+            subscribe((Class<Object>) serviceClass, consumer);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        // 可用 / 超时 / 取消后都不再需要这个消费者
+        future.whenComplete((result, error) -> unsubscribe(consumer));
+        deadline(future, "Require service[" + serviceClass + "]", timeout, unit);
+        return future;
+    }
+
+    @Override
+    public <EasyService> EasyService await(Class<EasyService> serviceClass, long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        // 服务连接回调默认在主线程. 在主线程阻塞等待只会等到超时
+        if (EasyPlatform.current().isMainThread()) {
+            throw new IllegalStateException("Can not await service[" + serviceClass + "] on main thread");
+        }
+
+        EasyService service = peek(serviceClass);
+        if (null != service) {
+            return service;
+        }
+
+        try {
+            return requireAsync(serviceClass, timeout, unit).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Require service[" + serviceClass + "] failed", cause);
+        }
+    }
+
+    @Override
+    public void requireAll(Set<Class<?>> serviceClasses, Consumer<EasyServices> consumer) {
+        if (null == consumer) {
+            throw new IllegalArgumentException("Given consumer is Null");
+        }
+
+        batch(serviceClasses, consumer);
+    }
+
+    @Override
+    public CompletableFuture<EasyServices> requireAllAsync(Set<Class<?>> serviceClasses, long timeout, TimeUnit unit) {
+        if (null == unit) {
+            throw new IllegalArgumentException("Given time unit is Null");
+        }
+
+        CompletableFuture<EasyServices> future = new CompletableFuture<>();
+        try {
+            BatchConsumer batch = batch(serviceClasses, future::complete);
+            // 超时 / 取消后不再等待剩下的服务
+            future.whenComplete((result, error) -> batch.close());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        deadline(future, "Require services" + serviceClasses, timeout, unit);
+        return future;
+    }
+
+    /**
+     * 先为所有服务注册同一个批量消费者, 所有服务代理因此同时启动. 之后按照各自的连接进度汇总.
+     * 批量消费者回调之后 (或者被关闭时) 从所有服务注销
+     */
+    @SuppressWarnings("unchecked")
+    private BatchConsumer batch(Set<Class<?>> serviceClasses, Consumer<EasyServices> consumer) {
+        if (null == serviceClasses || serviceClasses.isEmpty()) {
+            throw new IllegalArgumentException("Given service classes is empty");
+        }
+
+        BatchConsumer batch = new BatchConsumer(serviceClasses.size(), consumer);
+        BiConsumer[] consumers = new BiConsumer[serviceClasses.size()];
+        int count = 0;
+        try {
+            for (Class<?> serviceClass : serviceClasses) {
+                BiConsumer dispatched = dispatched(batch, mDispatcher);
+                subscribe((Class<Object>) serviceClass, dispatched);
+                consumers[count++] = dispatched;
+            }
+        } catch (RuntimeException e) {
+            batch.close();
+            for (int i = 0; i < count; i++) {
+                unsubscribe(consumers[i]);
+            }
+            throw e;
+        }
+
+        batch.release(() -> {
+            for (BiConsumer dispatched : consumers) {
+                unsubscribe(dispatched);
+            }
+        });
+        return batch;
+    }
+
+    private static void deadline(CompletableFuture<?> future, String description, long timeout, TimeUnit unit) {
+        if (!future.isDone()) {
+            ScheduledFuture<?> deadline = EasyDeadline.schedule(() -> future.completeExceptionally(
+                    new TimeoutException(description + " timeout after " + timeout + " " + unit)), timeout, unit);
+            future.whenComplete((result, error) -> deadline.cancel(false));
+        }
+    }
+
+    /**
+     * 批量消费者. 所有服务第一次都可用时回调一次
+     */
+    private static final class BatchConsumer implements BiConsumer<Object, Class<Object>> {
+
+        private final Map<Class<?>, Object> mServiceMap = new HashMap<>();
+        private final int mExpected;
+        private final Consumer<EasyServices> mConsumer;
+        private boolean mDone = false;
+        // 从所有服务注销的指令. 关闭之后才设置的直接执行
+        private Runnable mRelease = null;
+        private boolean mClosed = false;
+
+        BatchConsumer(int expected, Consumer<EasyServices> consumer) {
+            this.mExpected = expected;
+            this.mConsumer = consumer;
+        }
+
+        @Override
+        public void accept(Object service, Class<Object> serviceClass) {
+            EasyServices services;
+            synchronized (this) {
+                if (mDone) {
+                    return;
+                }
+
+                if (null == service) {
+                    mServiceMap.remove(serviceClass);
+                    return;
+                }
+
+                mServiceMap.put(serviceClass, service);
+                if (mServiceMap.size() < mExpected) {
+                    return;
+                }
+
+                mDone = true;
+                services = new EasyServices(new HashMap<>(mServiceMap));
+            }
+
+            mConsumer.accept(services);
+            close();
+        }
+
+        void release(Runnable release) {
+            synchronized (this) {
+                if (!mClosed) {
+                    mRelease = release;
+                    return;
+                }
+            }
+            release.run();
+        }
+
+        /**
+         * 不再回调, 并从所有服务注销
+         */
+        void close() {
+            Runnable release;
+            synchronized (this) {
+                mDone = true;
+                mClosed = true;
+                release = mRelease;
+                mRelease = null;
+            }
+
+            if (null != release) {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * 经过分发策略投递的消费者
+     *
+     * 投递的任务执行之前只记录最新的状态, 多次通知合并为一次回调.
+     * 合并后的状态与上一次回调的服务实例相同时不再回调.
+     */
+    private static final class DispatchedConsumer implements BiConsumer<Object, Class<Object>> {
+
+        private final BiConsumer<Object, Class<Object>> mConsumer;
+        private final EasyDispatcher mDispatcher;
+
+        // 以下状态在实例自身上同步
+        private Object mPending = null;
+        private Class<Object> mPendingClass = null;
+        private boolean mScheduled = false;
+        private Object mDelivered = null;
+
+        private final Runnable mDrain = this::drain;
+
+        DispatchedConsumer(BiConsumer<Object, Class<Object>> consumer, EasyDispatcher dispatcher) {
+            this.mConsumer = consumer;
+            this.mDispatcher = dispatcher;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DispatchedConsumer)) return false;
+            DispatchedConsumer that = (DispatchedConsumer) o;
+            return mConsumer.equals(that.mConsumer) && mDispatcher.equals(that.mDispatcher);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mConsumer, mDispatcher);
+        }
+
+        @Override
+        public void accept(Object service, Class<Object> serviceClass) {
+            synchronized (this) {
+                mPending = service;
+                mPendingClass = serviceClass;
+                if (mScheduled) {
+                    return;
+                }
+                mScheduled = true;
+            }
+
+            mDispatcher.dispatch(mDrain);
+        }
+
+        private void drain() {
+            Object service;
+            Class<Object> serviceClass;
+            synchronized (this) {
+                mScheduled = false;
+                service = mPending;
+                serviceClass = mPendingClass;
+                mPending = null;
+                if (service == mDelivered) {
+                    return;
+                }
+                mDelivered = service;
+            }
+
+            boolean traced = EasyTrace.begin(EasyTrace.SECTION_DISPATCH);
+            try {
+                mConsumer.accept(service, serviceClass);
+            } finally {
+                if (traced) {
+                    EasyTrace.end();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+
+/**
+ * 客户端组件 (Android 上对应 Activity / Service)
+ *
+ * 宿主共享的服务通过宿主解决. {@link EasyServiceScope#COMPONENT} 和 {@link EasyServiceScope#TRANSIENT} 的服务代理
+ * 由客户端自己创建, 随客户端启动和关闭.
+ */
+class EasyComponentClient extends EasyComponent {
+
+    private static final Slot[] NO_SLOTS = new Slot[0];
+    private static final Local[] NO_LOCALS = new Local[0];
+
+    // 服务编号 -> 服务槽. 只在锁内修改, peek 无锁读取
+    private volatile Slot[] mSlots = NO_SLOTS;
+    // 客户端自己管理的服务代理. 只在锁内访问
+    private Local[] mLocals = NO_LOCALS;
+    // 消费者 (分发策略包装之前) -> 它注册到的服务槽和临时服务代理. 注销时只访问这些位置. 只在锁内访问
+    private final Map<BiConsumer, Edges> mConsumerIndex = new HashMap<>();
+
+    private volatile EasyComponentHost<?> mHostComponent = null;
+    // 所有者的类型, 以及学习该类型 require 的服务的导航预测
+    private final Class<?> mOwnerClass;
+    private volatile EasyNavigation mNavigation = null;
+
+    // 与宿主共用同一把锁, 避免 客户端 -> 宿主 与 宿主 -> 客户端 两个方向的加锁顺序冲突.
+    // 锁内产生的通知也放入宿主的队列, 释放锁之后送达
+    private final Object mLock;
+    private final EasyOutbox mOutbox;
+
+    private volatile boolean startupAlready = false;
+    private volatile boolean shutdownAlready = false;
+
+
+    public EasyComponentClient(Object owner, EasyComponentHost<?> host) {
+        if (null == host) {
+            throw new IllegalArgumentException("Given host is Null");
+        }
+
+        if (null == owner || owner == host.root()) {
+            throw new IllegalArgumentException("invalid owner");
+        }
+
+        // 不持有 owner. 消费者都没有引用 owner 时, 组件表的弱引用键可以在 owner 被回收后清理
+        this.mOwnerClass = owner.getClass();
+
+        this.mHostComponent = host;
+        this.mLock = host;
+        this.mOutbox = host.outbox();
+    }
+
+    private EasyComponentHost<?> host() {
+        return mHostComponent;
+    }
+
+    /**
+     * @param navigation 学习该组件 require 的服务. 为空时不学习
+     */
+    void learn(EasyNavigation navigation) {
+        mNavigation = navigation;
+    }
+
+    public boolean isStartup() {
+        return startupAlready;
+    }
+
+    @Override
+    public void startup() {
+        synchronized (mLock) {
+            if (!startupAlready && !shutdownAlready) {
+                startupAlready = true;
+
+                // 父组件先 startup 一下
+                host().startup();
+
+                // 如果这时候已经准备好了就处理一下依赖关系
+                for (Slot slot : mSlots) {
+                    if (null != slot && null == slot.local) {
+                        host().resolve(slot.serviceClass, slot);
+                    }
+                }
+
+                for (Local local : mLocals) {
+                    for (BiConsumer consumer : local.consumers) {
+                        local.resolve(consumer);
+                    }
+                }
+            }
+        }
+        mOutbox.flush();
+    }
+
+    public boolean isShutdown() {
+        return shutdownAlready;
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (mLock) {
+            if (startupAlready && !shutdownAlready) {
+                shutdownAlready = true;
+                startupAlready = false;
+
+                // 解除依赖. 还没有送达的通知不再送达
+                for (Slot slot : mSlots) {
+                    if (null != slot && null == slot.local) {
+                        host().unregister(slot);
+                        cancel(slot.consumers);
+                    }
+                }
+
+                for (Local local : mLocals) {
+                    local.release();
+                    cancel(local.consumers);
+                }
+
+                // 清除需要清除的组件
+                mSlots = NO_SLOTS;
+                mLocals = NO_LOCALS;
+                mConsumerIndex.clear();
+                mHostComponent = null;
+            }
+        }
+    }
+
+    public void register(Class<? super Object> serviceClass, BiConsumer consumer) {
+        synchronized (mLock) {
+            if (shutdownAlready) {
+                throw new IllegalStateException("Component is shutdown already");
+            }
+
+            EasyNavigation navigation = mNavigation;
+            if (null != navigation) {
+                navigation.onRequire(mOwnerClass, serviceClass);
+            }
+
+            Edges edges = edges(consumer);
+            EasyServiceScope scope = host().scopeOf(serviceClass);
+            if (EasyServiceScope.TRANSIENT == scope) {
+                Local local = local(serviceClass);
+                edges.locals = Arrays.copyOf(edges.locals, edges.locals.length + 1);
+                edges.locals[edges.locals.length - 1] = local;
+                local.add(consumer);
+            } else {
+                Slot slot = ensureSlot(EasyServiceIds.of(serviceClass), (Class<Object>) serviceClass);
+                edges.slots.set(slot.id);
+                if (EasyServiceScope.COMPONENT == scope) {
+                    if (null == slot.local) {
+                        slot.local = local(serviceClass);
+                    }
+                    slot.local.add(consumer);
+                } else {
+                    slot.consumers = append(slot.consumers, consumer);
+
+                    host().register(serviceClass, slot);
+
+                    if (isStartup()) {
+                        host().resolve(serviceClass, slot);
+                    }
+                }
+            }
+        }
+        mOutbox.flush();
+    }
+
+    /**
+     * 注销消费者. 服务槽和组件独享的服务代理在客户端关闭之前保持, 之后的 require 可以直接复用.
+     * {@link EasyServiceScope#TRANSIENT} 的服务代理在没有消费者之后立即关闭
+     */
+    public void unregister(BiConsumer consumer) {
+        synchronized (mLock) {
+            internalUnregister(consumer);
+        }
+        mOutbox.flush();
+    }
+
+    private void internalUnregister(BiConsumer consumer) {
+        // 已经放入队列但还没有送达的通知不再送达
+        mOutbox.cancel(consumer);
+
+        BiConsumer key = unwrap(consumer);
+        Edges edges = mConsumerIndex.get(key);
+        if (null == edges) {
+            return;
+        }
+
+        // 只注销了其中一个分发策略时, 同一个消费者的其他包装仍然留在索引中
+        boolean all = key == consumer;
+        Slot[] slots = mSlots;
+        BitSet ids = edges.slots;
+        for (int id = ids.nextSetBit(0); 0 <= id; id = ids.nextSetBit(id + 1)) {
+            Slot slot = id < slots.length ? slots[id] : null;
+            if (null == slot) {
+                ids.clear(id);
+                continue;
+            }
+
+            BiConsumer[] consumers;
+            if (null != slot.local) {
+                consumers = slot.local.consumers = remove(slot.local.consumers, consumer);
+            } else {
+                consumers = slot.consumers = remove(slot.consumers, consumer);
+            }
+            if (all || !contains(consumers, key)) {
+                ids.clear(id);
+            }
+        }
+
+        int count = 0;
+        for (Local local : edges.locals) {
+            local.consumers = remove(local.consumers, consumer);
+            if (!all && contains(local.consumers, key)) {
+                edges.locals[count++] = local;
+            } else if (0 == local.consumers.length) {
+                // 临时服务的代理只属于这一次 require, 最后一个消费者注销后立即关闭
+                release(local);
+            }
+        }
+        edges.locals = 0 == count ? NO_LOCALS : Arrays.copyOf(edges.locals, count);
+
+        if (ids.isEmpty() && 0 == edges.locals.length) {
+            mConsumerIndex.remove(key);
+        }
+    }
+
+    @Override
+    protected void subscribe(Class<Object> serviceClass, BiConsumer consumer) {
+        register(serviceClass, consumer);
+    }
+
+    @Override
+    protected void unsubscribe(BiConsumer consumer) {
+        unregister(consumer);
+    }
+
+    /**
+     * 服务缓存命中需要满足: 缓存时宿主的断开次数与当前一致. 因此服务断开后, 即使回调还没有到达也不会返回旧实例
+     */
+    @Override
+    public <EasyService> EasyService peek(Class<EasyService> serviceClass) {
+        EasyComponentHost<?> host = mHostComponent;
+        if (null == host) {
+            return null;
+        }
+
+        int id = EasyServiceIds.of(serviceClass);
+        Slot[] slots = mSlots;
+        Slot slot = id < slots.length ? slots[id] : null;
+        if (null == slot) {
+            return null;
+        }
+
+        if (null != slot.local) {
+            return (EasyService) slot.local.service;
+        }
+
+        Object service = slot.service;
+        return null != service && slot.epoch == host.epoch(id) ? (EasyService) service : null;
+    }
+
+    private void cancel(BiConsumer[] consumers) {
+        for (BiConsumer consumer : consumers) {
+            mOutbox.cancel(consumer);
+        }
+    }
+
+    private void release(Local local) {
+        local.release();
+
+        Local[] locals = mLocals;
+        for (int i = 0; i < locals.length; i++) {
+            if (locals[i] == local) {
+                Local[] result = new Local[locals.length - 1];
+                System.arraycopy(locals, 0, result, 0, i);
+                System.arraycopy(locals, i + 1, result, i, locals.length - i - 1);
+                mLocals = result;
+                return;
+            }
+        }
+    }
+
+    private Edges edges(BiConsumer consumer) {
+        BiConsumer key = unwrap(consumer);
+        Edges edges = mConsumerIndex.get(key);
+        if (null == edges) {
+            edges = new Edges();
+            mConsumerIndex.put(key, edges);
+        }
+        return edges;
+    }
+
+    private Local local(Class<?> serviceClass) {
+        Local local = new Local((Class<Object>) serviceClass, host().create(serviceClass));
+        mLocals = Arrays.copyOf(mLocals, mLocals.length + 1);
+        mLocals[mLocals.length - 1] = local;
+        local.proxy.asyncProvide(local);
+        return local;
+    }
+
+    private Slot ensureSlot(int id, Class<Object> serviceClass) {
+        Slot[] slots = mSlots;
+        if (id < slots.length && null != slots[id]) {
+            return slots[id];
+        }
+
+        if (id >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(id + 1, slots.length * 2));
+        }
+        Slot slot = new Slot(id, serviceClass);
+        slots[id] = slot;
+        mSlots = slots;
+        return slot;
+    }
+
+    /**
+     * 服务槽: 一个服务的消费者和最近一次解决的服务实例. 作为该服务唯一的消费者注册到宿主
+     */
+    private final class Slot implements EasyOutbox.Locked {
+
+        final int id;
+        final Class<Object> serviceClass;
+
+        // 消费者 (按 equals 去重). 写时复制, 分发时遍历快照
+        BiConsumer[] consumers = NO_CONSUMERS;
+
+        // 先写 epoch 再写 service, peek 读到的 epoch 不会早于 service
+        volatile int epoch = -1;
+        volatile Object service = null;
+
+        // 组件独享的服务代理. 不为空时服务不经过宿主
+        Local local = null;
+
+        Slot(int id, Class<Object> serviceClass) {
+            this.id = id;
+            this.serviceClass = serviceClass;
+        }
+
+        @Override
+        public void accept(Object service, Class<Object> serviceClass) {
+            EasyComponentHost<?> host = mHostComponent;
+            epoch = null == host ? -1 : host.epoch(id);
+            this.service = service;
+
+            for (BiConsumer consumer : consumers) {
+                mOutbox.post(consumer, service, serviceClass);
+            }
+        }
+    }
+
+    /**
+     * 一个消费者注册到的位置: 服务槽编号 (包括组件独享的服务) 以及临时服务代理
+     */
+    private static final class Edges {
+        final BitSet slots = new BitSet();
+        Local[] locals = NO_LOCALS;
+    }
+
+    /**
+     * 客户端自己管理的服务代理及其消费者
+     */
+    private final class Local implements BiConsumer<Object, Class<Object>> {
+
+        final Class<Object> serviceClass;
+        final EasyServiceProxy<Object> proxy;
+
+        BiConsumer[] consumers = NO_CONSUMERS;
+        volatile Object service = null;
+
+        Local(Class<Object> serviceClass, EasyServiceProxy<Object> proxy) {
+            this.serviceClass = serviceClass;
+            this.proxy = proxy;
+        }
+
+        void add(BiConsumer consumer) {
+            consumers = append(consumers, consumer);
+            if (isStartup()) {
+                resolve(consumer);
+            }
+        }
+
+        void resolve(BiConsumer consumer) {
+            if (!proxy.isStartup()) {
+                proxy.startup();
+            }
+
+            if (proxy.isStartup()) {
+                Object service = proxy.provide();
+                if (null != service) {
+                    this.service = service;
+                    mOutbox.post(consumer, service, serviceClass);
+                }
+            }
+        }
+
+        void release() {
+            proxy.asyncProvide(null);
+            if (proxy.isStartup() && !proxy.isShutdown()) {
+                proxy.shutdown();
+            }
+            service = null;
+        }
+
+        @Override
+        public void accept(Object service, Class<Object> serviceClass) {
+            synchronized (mLock) {
+                this.service = service;
+                for (BiConsumer consumer : consumers) {
+                    mOutbox.post(consumer, service, serviceClass);
+                }
+            }
+            mOutbox.flush();
+        }
+    }
+}
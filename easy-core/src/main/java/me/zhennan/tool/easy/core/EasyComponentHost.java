@@ -0,0 +1,825 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.EasyMetrics;
+import me.zhennan.tool.easy.EasyServicePriority;
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+import me.zhennan.tool.easy.EasyTrace;
+
+/**
+ * 宿主组件 (根作用域, Android 上对应 Application)
+ *
+ * 所有状态变更都在宿主实例上同步进行. 依附于该宿主的 {@link EasyComponentClient} 也使用同一把锁,
+ * 因此从任意线程 require 都是安全的. 持有锁时产生的通知放入 {@link EasyOutbox}, 释放锁之后再回调消费者,
+ * 因此消费者 (包括 {@link me.zhennan.tool.easy.EasyDispatcher#INLINE} 的消费者和 requireAsync 的结果) 不会在锁内执行.
+ *
+ * {@link EasyServiceScope#SINGLETON} 的服务代理由 {@link EasyFeatureManager} 缓存, 宿主释放它时只解除回调, 不关闭代理.
+ * 宿主自身 require 的 {@link EasyServiceScope#COMPONENT} / {@link EasyServiceScope#TRANSIENT} 服务按宿主共享处理.
+ *
+ * 服务之间的依赖 ({@link EasyProvider#dependenciesOf(Class)}) 构成一个有向无环图. 宿主创建服务代理时先检查依赖中是否有环,
+ * 然后以服务自己的依赖消费者 ({@link Slot#wiring}) 依次 require 每一个依赖: 依赖先于服务被创建和启动, 互不依赖的服务同时启动.
+ * 服务只有在依赖全部可用之后才启动, 并且只有在依赖全部可用时才分发给消费者. 任何一个依赖断开, 消费者都会收到 null.
+ *
+ * 内存紧张 ({@link #trim(EasyServicePriority)}) 或者绑定的服务超过上限 ({@link #maxBound(int)}) 时, 宿主解绑服务但保留它的消费者.
+ * 服务槽没有代理但仍有消费者即为被解绑的状态, 下一次解决依赖时重新创建代理.
+ *
+ * @param <Owner> 所有者类型
+ */
+class EasyComponentHost<Owner> extends EasyComponent {
+
+    private static final Slot[] NO_SLOTS = new Slot[0];
+
+    // 服务编号 -> 服务槽. 只在锁内修改, 修改后重新发布以便客户端无锁读取
+    private volatile Slot[] mSlots = NO_SLOTS;
+    // 消费者 -> 服务编号 的反向索引. 注销消费者时只需要处理它自己依赖的服务. 与消费者数组一样按 equals 去重
+    private final Map<BiConsumer<Object, Class<Object>>, BitSet> mServiceIndex = new HashMap<>();
+    // 锁内产生的通知. 与客户端共用
+    private final EasyOutbox mOutbox = new EasyOutbox(this);
+
+    private Owner mRoot = null;
+    private EasyFeatureManager<Owner> mFeatureManager = null;
+    private volatile EasyMetrics mMetrics = EasyMetrics.NONE;
+    private volatile EasyStartupProfile mProfile = null;
+    // 绑定数量上限, 以及最近使用的计数. 计数只在锁内修改
+    private volatile int mMaxBound = 0;
+    private long mTick = 0;
+    private boolean evicting = false;
+
+
+    private volatile boolean startupAlready = false;
+    private volatile boolean shutdownAlready = false;
+
+    public EasyComponentHost(Owner root, EasyFeatureManager<Owner> manager) {
+        if (null == root) {
+            throw new IllegalArgumentException("Given root is Null");
+        }
+
+        mRoot = root;
+
+        if (null == manager) {
+            throw new IllegalArgumentException("Given feature manager is Null");
+        }
+
+        mFeatureManager = manager;
+    }
+
+    /**
+     * @return 根作用域的所有者
+     */
+    public Owner root() {
+        return mRoot;
+    }
+
+    /**
+     * @param metrics 指标监听. 为空时不统计
+     */
+    public void metrics(EasyMetrics metrics) {
+        mMetrics = null == metrics ? EasyMetrics.NONE : metrics;
+    }
+
+    /**
+     * @param profile 记录之后 register 的服务类型. 为空时停止记录
+     */
+    public void record(EasyStartupProfile profile) {
+        mProfile = profile;
+    }
+
+    /**
+     * @return 锁内产生的通知. 客户端在同一把锁内产生的通知也放入这里
+     */
+    EasyOutbox outbox() {
+        return mOutbox;
+    }
+
+    public boolean isStartup() {
+        return startupAlready;
+    }
+
+    @Override
+    public void startup() {
+        synchronized (this) {
+            if (!startupAlready && !shutdownAlready) {
+                startupAlready = true;
+
+                // 试着处理所有的 proxy
+                for (Slot slot : mSlots) {
+                    if (null == slot) {
+                        continue;
+                    }
+
+                    for (BiConsumer consumer : slot.consumers) {
+                        resolve(slot, consumer);
+                    }
+                }
+            }
+        }
+        mOutbox.flush();
+    }
+
+    public boolean isShutdown() {
+        return shutdownAlready;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (startupAlready && !shutdownAlready) {
+            startupAlready = false;
+            shutdownAlready = true;
+
+
+            for (Slot slot : mSlots) {
+                if (null == slot) {
+                    continue;
+                }
+
+                EasyServiceProxy<Object> proxy = slot.proxy;
+                if (null != proxy) {
+                    proxy.asyncProvide(null);
+                    if (!slot.singleton && proxy.isStartup() && !proxy.isShutdown()) {
+                        proxy.shutdown();
+                    }
+                }
+
+                if (null != slot.idle) {
+                    slot.idle.run();
+                    slot.idle = null;
+                }
+            }
+
+            // proxy 和 consumer 全部清除
+            mSlots = NO_SLOTS;
+            mServiceIndex.clear();
+
+
+        }
+    }
+
+    public void register(Class<? extends Object> serviceClass, BiConsumer consumer) {
+        boolean traced = EasyTrace.begin(EasyTrace.SECTION_REGISTER);
+        try {
+            EasyStartupProfile profile = mProfile;
+            if (null != profile) {
+                profile.add(serviceClass);
+            }
+            synchronized (this) {
+                internalRegister(serviceClass, consumer);
+            }
+        } finally {
+            if (traced) {
+                EasyTrace.end();
+            }
+        }
+        mOutbox.flush();
+    }
+
+    /**
+     * 预热服务: 提前创建并启动服务代理
+     *
+     * 预热的服务由一个内部消费者持有 holdMillis. 期间真正的消费者直接复用已经在连接中的代理;
+     * 到期后仍然没有消费者的服务按正常流程释放 (或进入保活期). 不在 feature 列表中,
+     * 由客户端自己创建代理 ({@link EasyServiceScope#COMPONENT} / {@link EasyServiceScope#TRANSIENT}) 以及依赖有问题的服务直接跳过.
+     *
+     * @param services 服务类型
+     * @param holdMillis 持有时长 (毫秒)
+     */
+    public void prewarm(Collection<Class<?>> services, long holdMillis) {
+        if (null == services) {
+            throw new IllegalArgumentException("Given services is Null");
+        }
+
+        synchronized (this) {
+            internalPrewarm(services, holdMillis);
+        }
+        // 启动预热的服务可能解绑其他服务
+        mOutbox.flush();
+    }
+
+    private void internalPrewarm(Collection<Class<?>> services, long holdMillis) {
+        if (!startupAlready) {
+            return;
+        }
+
+        Hold hold = new Hold();
+        for (Class<?> serviceClass : services) {
+            if (!mFeatureManager.contains(serviceClass)) {
+                continue;
+            }
+
+            EasyServiceScope scope = mFeatureManager.scopeOf(serviceClass);
+            if (EasyServiceScope.COMPONENT == scope || EasyServiceScope.TRANSIENT == scope) {
+                continue;
+            }
+
+            try {
+                internalRegister(serviceClass, hold);
+            } catch (IllegalArgumentException | IllegalStateException ignored) { }
+        }
+
+        if (mServiceIndex.containsKey(hold)) {
+            EasyPlatform.current().postDelayed(() -> unregister(hold), holdMillis);
+        }
+    }
+
+    private void internalRegister(Class<? extends Object> serviceClass, BiConsumer consumer) {
+        int id = EasyServiceIds.of(serviceClass);
+        Slot slot = slot(id);
+
+        // 保活期内的服务直接复用
+        if (null != slot && null != slot.idle) {
+            slot.idle.run();
+            slot.idle = null;
+        }
+
+        if (null == slot || null == slot.proxy) {
+            if (!mFeatureManager.contains(serviceClass)) {
+                throw new IllegalArgumentException("Given service["+serviceClass+"] have not in feature list");
+            } else {
+                slot = bind(id, serviceClass);
+            }
+        }
+
+        BiConsumer[] consumers = append(slot.consumers, consumer);
+        slot.consumers = consumers;
+        mMetrics.onConsumerCount(serviceClass, consumers.length);
+
+        // 按包装之前的消费者索引, 注销时传入原始消费者也能找到
+        BiConsumer key = unwrap(consumer);
+        BitSet services = mServiceIndex.get(key);
+        if (null == services) {
+            services = new BitSet();
+            mServiceIndex.put(key, services);
+        }
+        services.set(id);
+
+        // 立即处理该依赖
+        resolve(slot, consumer);
+    }
+
+    /**
+     * 创建服务代理. 被解绑的服务槽 (仍然有消费者) 也通过这里重新绑定
+     */
+    private Slot bind(int id, Class<?> serviceClass) {
+        Set<Class<?>> dependencies = mFeatureManager.dependenciesOf(serviceClass);
+        boolean dependent = null != dependencies && !dependencies.isEmpty();
+        if (dependent) {
+            checkDependencies(serviceClass, new ArrayList<>(), new HashSet<>());
+        }
+
+        Slot slot = ensureSlot(id, (Class<Object>) serviceClass);
+        slot.singleton = EasyServiceScope.SINGLETON == mFeatureManager.scopeOf(serviceClass);
+        slot.priority = mFeatureManager.priorityOf(serviceClass);
+        slot.proxy = slot.singleton
+                ? mFeatureManager.obtain((Class<Object>) serviceClass, mRoot)
+                : mFeatureManager.create((Class<Object>) serviceClass, mRoot);
+        slot.requireNanos = System.nanoTime();
+        slot.waiting = true;
+        slot.proxy.asyncProvide(slot);
+
+        if (dependent) {
+            wire(slot, dependencies);
+        }
+        return slot;
+    }
+
+    /**
+     * 检查服务的依赖: 依赖必须在 feature 列表中, 并且不能有环
+     *
+     * @param path 当前的依赖路径
+     * @param checked 已经检查过的服务
+     */
+    private void checkDependencies(Class<?> serviceClass, List<Class<?>> path, Set<Class<?>> checked) {
+        int index = path.indexOf(serviceClass);
+        if (0 <= index) {
+            StringBuilder cycle = new StringBuilder();
+            for (int i = index; i < path.size(); i++) {
+                cycle.append(path.get(i).getName()).append(" -> ");
+            }
+            cycle.append(serviceClass.getName());
+            throw new IllegalStateException("Found dependency cycle: " + cycle);
+        }
+
+        if (!checked.add(serviceClass)) {
+            return;
+        }
+
+        Set<Class<?>> dependencies = mFeatureManager.dependenciesOf(serviceClass);
+        if (null == dependencies || dependencies.isEmpty()) {
+            return;
+        }
+
+        path.add(serviceClass);
+        for (Class<?> dependency : dependencies) {
+            if (!mFeatureManager.contains(dependency)) {
+                throw new IllegalArgumentException("Given service["+serviceClass+"] depends on service["+dependency+"] which have not in feature list");
+            }
+            checkDependencies(dependency, path, checked);
+        }
+        path.remove(path.size() - 1);
+    }
+
+    /**
+     * 依赖服务. 依赖的服务槽先于 require 确定下来, 依赖可用的通知到达时才能正确判断服务是否就绪
+     */
+    private void wire(Slot slot, Set<Class<?>> dependencies) {
+        Slot[] slots = new Slot[dependencies.size()];
+        int i = 0;
+        for (Class<?> dependency : dependencies) {
+            slots[i++] = ensureSlot(EasyServiceIds.of(dependency), (Class<Object>) dependency);
+        }
+        slot.dependencies = slots;
+
+        for (Class<?> dependency : dependencies) {
+            internalRegister(dependency, slot.wiring);
+        }
+    }
+
+    /**
+     * @return 服务的依赖是否全部可用
+     */
+    private static boolean ready(Slot slot) {
+        for (Slot dependency : slot.dependencies) {
+            if (null == dependency.service) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 服务的某个依赖状态变化
+     */
+    private void rewire(Slot slot, Object dependency) {
+        EasyServiceProxy<Object> proxy = slot.proxy;
+        if (null == proxy) {
+            return;
+        }
+
+        if (null == dependency) {
+            // 依赖断开, 服务不再完整
+            if (null != slot.service) {
+                dispatch(slot, null);
+            }
+            return;
+        }
+
+        if (!ready(slot)) {
+            return;
+        }
+
+        if (startupAlready && !proxy.isStartup()) {
+            proxy.startup();
+            evict(slot);
+        }
+
+        if (proxy.isStartup()) {
+            Object service = proxy.provide();
+            if (null != service && service != slot.service) {
+                dispatch(slot, service);
+            }
+        }
+    }
+
+    /**
+     * @param maxBound 同时绑定的服务数量上限. 超过时按最近最少使用解绑. 0 为不限制
+     */
+    public void maxBound(int maxBound) {
+        synchronized (this) {
+            mMaxBound = maxBound;
+            if (0 < maxBound) {
+                evict(null);
+            }
+        }
+        mOutbox.flush();
+    }
+
+    /**
+     * 内存紧张. 释放所有保活期内的服务, 并解绑不高于该优先级的服务
+     *
+     * 被解绑的服务保留消费者, 消费者收到 null; 下一次 require (或 resolve) 时重新绑定.
+     * {@link EasyServicePriority#CRITICAL} 以及进程单例的服务不会被解绑.
+     * 仍被绑定中的服务依赖的服务也不会被解绑, 依赖方被解绑之后才会跟着解绑.
+     *
+     * @param priority 解绑的最高优先级
+     */
+    public void trim(EasyServicePriority priority) {
+        if (null == priority) {
+            throw new IllegalArgumentException("Given priority is Null");
+        }
+
+        synchronized (this) {
+            // 依赖方解绑后, 它的依赖才能解绑. 重复到没有可以解绑的服务为止
+            boolean unbound;
+            do {
+                unbound = false;
+                for (Slot slot : mSlots) {
+                    if (null == slot || null == slot.proxy) {
+                        continue;
+                    }
+
+                    if (null != slot.idle) {
+                        slot.idle.run();
+                        slot.idle = null;
+                        release(slot);
+                    } else if (unbindable(slot) && slot.priority.compareTo(priority) <= 0) {
+                        unbind(slot);
+                        unbound = true;
+                    }
+                }
+            } while (unbound);
+        }
+        mOutbox.flush();
+    }
+
+    /**
+     * 超过绑定数量上限时, 解绑最近最少使用的服务
+     *
+     * @param started 刚刚启动的服务. 它和它 (直接或间接) 的依赖不会被解绑
+     */
+    private void evict(Slot started) {
+        int maxBound = mMaxBound;
+        if (0 >= maxBound || evicting) {
+            return;
+        }
+
+        evicting = true;
+        try {
+            while (bound() > maxBound) {
+                Slot victim = null;
+                for (Slot slot : mSlots) {
+                    if (bound(slot) && slot != started && unbindable(slot)
+                            && (null == victim || slot.used < victim.used)) {
+                        victim = slot;
+                    }
+                }
+
+                if (null == victim) {
+                    return;
+                }
+
+                if (null != victim.idle) {
+                    victim.idle.run();
+                    victim.idle = null;
+                    release(victim);
+                } else {
+                    // 依赖方解绑后没有其他消费者的依赖随之释放, 因此每次重新计数
+                    unbind(victim);
+                }
+            }
+        } finally {
+            evicting = false;
+        }
+    }
+
+    /**
+     * @return 当前绑定的服务数量
+     */
+    private int bound() {
+        int bound = 0;
+        for (Slot slot : mSlots) {
+            if (bound(slot)) {
+                bound++;
+            }
+        }
+        return bound;
+    }
+
+    private static boolean bound(Slot slot) {
+        return null != slot && null != slot.proxy && slot.proxy.isStartup();
+    }
+
+    /**
+     * 进程单例, {@link EasyServicePriority#CRITICAL} 的服务不能解绑.
+     * 被仍然绑定的服务依赖的服务也不能解绑, 否则依赖方不会再收到依赖可用的通知. 依赖链因此逐级受到保护
+     */
+    private boolean unbindable(Slot slot) {
+        if (slot.singleton || EasyServicePriority.CRITICAL == slot.priority) {
+            return false;
+        }
+
+        for (Slot dependent : mSlots) {
+            if (null == dependent || null == dependent.proxy) {
+                continue;
+            }
+
+            for (Slot dependency : dependent.dependencies) {
+                if (dependency == slot) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解绑服务但保留消费者. 消费者收到 null
+     */
+    private void unbind(Slot slot) {
+        boolean available = null != slot.service;
+        release(slot);
+        if (available) {
+            dispatch(slot, null);
+        }
+    }
+
+    public void unregister(BiConsumer consumer) {
+        synchronized (this) {
+            internalUnregister(consumer);
+        }
+        mOutbox.flush();
+    }
+
+    private void internalUnregister(BiConsumer consumer) {
+        // 已经放入队列但还没有送达的通知不再送达
+        mOutbox.cancel(consumer);
+
+        BiConsumer key = unwrap(consumer);
+        BitSet services = mServiceIndex.get(key);
+        if (null == services) {
+            return;
+        }
+
+        for (int id = services.nextSetBit(0); 0 <= id; id = services.nextSetBit(id + 1)) {
+            Slot slot = slot(id);
+            if (null == slot || 0 == slot.consumers.length) {
+                services.clear(id);
+                continue;
+            }
+
+            BiConsumer[] consumers = remove(slot.consumers, consumer);
+            // 只注销了其中一个分发策略时, 同一个消费者的其他包装仍然留在索引中
+            if (key == consumer || !contains(consumers, key)) {
+                services.clear(id);
+            }
+            if (consumers == slot.consumers) {
+                continue;
+            }
+
+            slot.consumers = consumers;
+            mMetrics.onConsumerCount(slot.serviceClass, consumers.length);
+            if (0 == consumers.length) {
+                long keepAlive = slot.singleton ? 0 : mFeatureManager.keepAliveMillis(slot.serviceClass);
+                if (0 < keepAlive) {
+                    idle(slot, keepAlive);
+                } else {
+                    release(slot);
+                }
+            }
+        }
+
+        if (services.isEmpty()) {
+            mServiceIndex.remove(key);
+        }
+    }
+
+    /**
+     * 服务进入保活期. 超时后仍然没有消费者则关闭
+     */
+    private void idle(Slot slot, long keepAliveMillis) {
+        Runnable expire = () -> {
+            synchronized (this) {
+                if (null != slot.idle && 0 == slot.consumers.length) {
+                    slot.idle = null;
+                    release(slot);
+                }
+            }
+        };
+        slot.idle = EasyPlatform.current().postDelayed(expire, keepAliveMillis);
+    }
+
+    private void release(Slot slot) {
+        EasyServiceProxy<Object> proxy = slot.proxy; // 这里删除了 service
+        slot.proxy = null;
+        slot.waiting = false;
+        slot.epoch++;
+        slot.service = null;
+
+        // 不再依赖其他服务
+        if (0 < slot.dependencies.length) {
+            slot.dependencies = NO_SLOTS;
+            internalUnregister(slot.wiring);
+        }
+
+        if (null != proxy) {
+            proxy.asyncProvide(null);
+            // 进程单例保持连接, 下一次 require 直接复用
+            if (!slot.singleton && proxy.isStartup() && !proxy.isShutdown()) {
+                proxy.shutdown();
+            }
+        }
+    }
+
+    public void resolve(Class<? extends Object> serviceClass, BiConsumer consumer) {
+        boolean traced = EasyTrace.begin(EasyTrace.SECTION_RESOLVE);
+        try {
+            synchronized (this) {
+                internalResolve(serviceClass, consumer);
+            }
+        } finally {
+            if (traced) {
+                EasyTrace.end();
+            }
+        }
+        mOutbox.flush();
+    }
+
+    private void internalResolve(Class<? extends Object> serviceClass, BiConsumer consumer) {
+        resolve(slot(EasyServiceIds.of(serviceClass)), consumer);
+    }
+
+    private void resolve(Slot slot, BiConsumer consumer) {
+        if (null == slot.proxy) {
+            // 因为内存压力被解绑的服务, 在下一次 require 时重新绑定
+            bind(slot.id, slot.serviceClass);
+        }
+        slot.used = ++mTick;
+
+        if (!ready(slot)) {
+            // 依赖全部可用后由 rewire 启动并分发
+            return;
+        }
+
+        EasyServiceProxy<Object> proxy = slot.proxy;
+        if (startupAlready && !proxy.isStartup()) {
+            proxy.startup();
+            evict(slot);
+        }
+
+        if (proxy.isStartup()) {
+            Object service = proxy.provide();
+            if (null != service) {
+                firstService(slot);
+                slot.service = service;
+                mOutbox.post(consumer, service, slot.serviceClass);
+            }
+        }
+    }
+
+    /**
+     * 服务代理的状态变化. 分发给该服务的所有消费者. 通知在调用方释放锁之后送达
+     */
+    private synchronized void dispatch(Slot slot, Object service) {
+        if (null != service && !ready(slot)) {
+            // 依赖还没有全部可用. 可用后由 rewire 分发
+            return;
+        }
+
+        if (null != service) {
+            firstService(slot);
+        } else {
+            // 服务断开. 客户端缓存的实例随之失效
+            slot.epoch++;
+        }
+        slot.service = service;
+
+        BiConsumer[] consumers = slot.consumers;
+        if (0 < consumers.length) {
+            boolean traced = EasyTrace.begin(EasyTrace.SECTION_DISPATCH);
+            try {
+                for (BiConsumer consumer : consumers) {
+                    mOutbox.post(consumer, service, slot.serviceClass);
+                }
+            } finally {
+                if (traced) {
+                    EasyTrace.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * 服务第一次可用时上报等待时长
+     */
+    private void firstService(Slot slot) {
+        if (slot.waiting) {
+            slot.waiting = false;
+            mMetrics.onFirstService(slot.serviceClass, System.nanoTime() - slot.requireNanos);
+        }
+    }
+
+    private Slot slot(int id) {
+        Slot[] slots = mSlots;
+        return id < slots.length ? slots[id] : null;
+    }
+
+    private Slot ensureSlot(int id, Class<Object> serviceClass) {
+        Slot[] slots = mSlots;
+        if (id < slots.length && null != slots[id]) {
+            return slots[id];
+        }
+
+        if (id >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(id + 1, slots.length * 2));
+        }
+        Slot slot = new Slot(this, id, serviceClass);
+        slots[id] = slot;
+        mSlots = slots;
+        return slot;
+    }
+
+    /**
+     * @param serviceClass 服务类型
+     * @return 服务的作用域
+     */
+    public EasyServiceScope scopeOf(Class<?> serviceClass) {
+        return mFeatureManager.scopeOf(serviceClass);
+    }
+
+    /**
+     * 为客户端创建它自己管理的服务代理 ({@link EasyServiceScope#COMPONENT} / {@link EasyServiceScope#TRANSIENT}).
+     * 代理仍以根作用域的所有者创建, 客户端不持有自己的所有者
+     */
+    public EasyServiceProxy<Object> create(Class<?> serviceClass) {
+        if (!mFeatureManager.contains(serviceClass)) {
+            throw new IllegalArgumentException("Given service["+serviceClass+"] have not in feature list");
+        }
+        return mFeatureManager.create((Class<Object>) serviceClass, mRoot);
+    }
+
+    /**
+     * @param id 服务编号
+     * @return 服务断开的次数. 服务没有被依赖时返回 -1
+     */
+    int epoch(int id) {
+        Slot slot = slot(id);
+        return null == slot ? -1 : slot.epoch;
+    }
+
+    @Override
+    public <EasyService> EasyService peek(Class<EasyService> serviceClass) {
+        Slot slot = slot(EasyServiceIds.of(serviceClass));
+        return null == slot ? null : (EasyService) slot.service;
+    }
+
+    @Override
+    protected void subscribe(Class<Object> serviceClass, BiConsumer consumer) {
+        register(serviceClass, consumer);
+    }
+
+    @Override
+    protected void unsubscribe(BiConsumer consumer) {
+        unregister(consumer);
+    }
+
+    /**
+     * 预热服务的持有者. 每次预热一个实例, 到期时一起注销
+     */
+    private static final class Hold implements EasyOutbox.Locked {
+        @Override
+        public void accept(Object service, Class<Object> serviceClass) {
+        }
+    }
+
+    /**
+     * 服务槽: 一个服务的代理与消费者. 除 volatile 字段外只在宿主锁内访问
+     */
+    private static final class Slot implements BiConsumer<Object, Class<Object>> {
+
+        final EasyComponentHost<?> host;
+        final int id;
+        final Class<Object> serviceClass;
+
+        EasyServiceProxy<Object> proxy = null;
+        // 消费者 (按 equals 去重). 写时复制, 分发时遍历快照
+        BiConsumer[] consumers = NO_CONSUMERS;
+        // 没有消费者但仍在保活期内时, 取消超时关闭的指令
+        Runnable idle = null;
+        // 已经创建代理但还没有第一次可用时, 创建代理的时间 (纳秒)
+        long requireNanos = 0;
+        boolean waiting = false;
+        // 进程单例的代理不随宿主关闭
+        boolean singleton = false;
+        // 内存紧张时按优先级解绑. 超过绑定数量上限时按最近使用的计数解绑
+        EasyServicePriority priority = EasyServicePriority.NORMAL;
+        long used = 0;
+        // 依赖的服务槽, 以及向依赖注册的消费者
+        Slot[] dependencies = NO_SLOTS;
+        final EasyOutbox.Locked wiring;
+
+        volatile Object service = null;
+        volatile int epoch = 0;
+
+        Slot(EasyComponentHost<?> host, int id, Class<Object> serviceClass) {
+            this.host = host;
+            this.id = id;
+            this.serviceClass = serviceClass;
+            this.wiring = (dependency, dependencyClass) -> host.rewire(this, dependency);
+        }
+
+        @Override
+        public void accept(Object service, Class<Object> serviceClass) {
+            host.dispatch(this, service);
+            host.mOutbox.flush();
+        }
+    }
+}
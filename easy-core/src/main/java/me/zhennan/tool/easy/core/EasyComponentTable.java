@@ -0,0 +1,170 @@
+package me.zhennan.tool.easy.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.Consumer;
+
+/**
+ * 组件表
+ *
+ * 以所有者实例 (对象标识) 为键保存 EasyComponent. 表本身不可变,
+ * 每次写入都会返回一张新表. 因此发布之后的读取不需要加锁, 也不会产生对象分配.
+ *
+ * 键可以是强引用, 也可以是弱引用 (见 {@link #put(Object, EasyComponent, ReferenceQueue)}).
+ * 弱引用的键在所有者被回收之后会进入给定的 ReferenceQueue. 注意组件本身是强引用的值:
+ * 组件的消费者引用着所有者时, 所有者不会被回收, 这时只能按照所有者的生命周期清理.
+ */
+final class EasyComponentTable {
+
+    static final EasyComponentTable EMPTY = new EasyComponentTable(new Node[8], 0);
+
+    private final Node[] mBuckets;
+    private final int mSize;
+
+    private EasyComponentTable(Node[] buckets, int size) {
+        this.mBuckets = buckets;
+        this.mSize = size;
+    }
+
+    private static int indexOf(int hash, int length) {
+        return (hash ^ (hash >>> 16)) & (length - 1);
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public EasyComponent get(Object owner) {
+        for (Node node = mBuckets[indexOf(System.identityHashCode(owner), mBuckets.length)]; null != node; node = node.next) {
+            if (node.key.get() == owner) {
+                return node.component;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 通过键获取组件. 键的所有者可能已经被回收
+     */
+    public EasyComponent get(Key key) {
+        for (Node node = mBuckets[indexOf(key.hash, mBuckets.length)]; null != node; node = node.next) {
+            if (node.key == key) {
+                return node.component;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 遍历所有的键
+     */
+    public void forEachKey(Consumer<Key> action) {
+        for (Node head : mBuckets) {
+            for (Node node = head; null != node; node = node.next) {
+                action.accept(node.key);
+            }
+        }
+    }
+
+    /**
+     * @return 以强引用的键写入(或替换)目标组件之后的新表
+     */
+    public EasyComponentTable put(Object owner, EasyComponent component) {
+        return put(owner, component, null);
+    }
+
+    /**
+     * @param queue 不为空时以弱引用保存所有者, 所有者被回收后键会进入该队列
+     * @return 写入(或替换)目标组件之后的新表
+     */
+    public EasyComponentTable put(Object owner, EasyComponent component, ReferenceQueue<Object> queue) {
+        EasyComponentTable table = remove(owner);
+
+        Node[] buckets;
+        if (table.mSize + 1 > table.mBuckets.length * 3 / 4) {
+            buckets = new Node[table.mBuckets.length * 2];
+            for (Node head : table.mBuckets) {
+                for (Node node = head; null != node; node = node.next) {
+                    int index = indexOf(node.key.hash, buckets.length);
+                    buckets[index] = new Node(node.key, node.component, buckets[index]);
+                }
+            }
+        } else {
+            buckets = table.mBuckets.clone();
+        }
+
+        Key key = new Key(owner, queue);
+        int index = indexOf(key.hash, buckets.length);
+        buckets[index] = new Node(key, component, buckets[index]);
+        return new EasyComponentTable(buckets, table.mSize + 1);
+    }
+
+    /**
+     * @return 删除目标组件之后的新表. 如果目标不存在则返回当前表
+     */
+    public EasyComponentTable remove(Object owner) {
+        int index = indexOf(System.identityHashCode(owner), mBuckets.length);
+        for (Node node = mBuckets[index]; null != node; node = node.next) {
+            if (node.key.get() == owner) {
+                return remove(node.key);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return 删除目标键之后的新表. 如果目标不存在则返回当前表
+     */
+    public EasyComponentTable remove(Key key) {
+        if (null == get(key)) {
+            return this;
+        }
+
+        // 只重建目标所在的链表
+        int index = indexOf(key.hash, mBuckets.length);
+        Node chain = null;
+        for (Node node = mBuckets[index]; null != node; node = node.next) {
+            if (node.key != key) {
+                chain = new Node(node.key, node.component, chain);
+            }
+        }
+
+        Node[] buckets = mBuckets.clone();
+        buckets[index] = chain;
+        return new EasyComponentTable(buckets, mSize - 1);
+    }
+
+    /**
+     * 组件表的键
+     */
+    static final class Key extends WeakReference<Object> {
+
+        // 强引用模式下持有所有者. 弱引用模式下为空
+        private final Object strong;
+        final int hash;
+        final String description;
+
+        Key(Object owner, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.strong = null == queue ? owner : null;
+            this.hash = System.identityHashCode(owner);
+            this.description = null == queue ? null : owner.getClass().getName() + "@" + Integer.toHexString(hash);
+        }
+
+        boolean isWeak() {
+            return null == strong;
+        }
+    }
+
+    private static final class Node {
+        final Key key;
+        final EasyComponent component;
+        final Node next;
+
+        Node(Key key, EasyComponent component, Node next) {
+            this.key = key;
+            this.component = component;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 超时调度器
+ *
+ * 所有超时任务共享一个后台守护线程. 被取消的任务会立即从队列中移除.
+ */
+final class EasyDeadline {
+
+    private static final ScheduledThreadPoolExecutor sExecutor;
+
+    static {
+        sExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "EasyDeadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    private EasyDeadline() {}
+
+    static ScheduledFuture<?> schedule(Runnable command, long timeout, TimeUnit unit) {
+        return sExecutor.schedule(command, timeout, unit);
+    }
+}
@@ -0,0 +1,338 @@
+package me.zhennan.tool.easy.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import me.zhennan.tool.easy.EasyLeakListener;
+import me.zhennan.tool.easy.EasyMetrics;
+import me.zhennan.tool.easy.EasyResolver;
+import me.zhennan.tool.easy.EasyServicePriority;
+import me.zhennan.tool.easy.EasyTrace;
+
+/**
+ * 服务依赖解决引擎
+ *
+ * 与平台无关. 以所有者 (Owner) 划分作用域: 根作用域对应宿主组件, 持有所有的服务代理;
+ * 其他所有者对应客户端组件, 通过宿主解决依赖. 所有者之间的关系由 {@link EasyScopes} 描述.
+ *
+ * 组件表采用写时复制: startup / shutdown 在 mWriteLock 上串行地生成新表并发布,
+ * {@link #from(Object)} 直接读取当前发布的表, 不加锁也不分配对象. 因此可以在任意线程调用.
+ *
+ * 开启泄漏检测 {@link #watchLeaks(EasyLeakListener)} 后, 每次 startup / shutdown 时会清理已经销毁
+ * ({@link EasyScopes#isDestroyed(Object)}) 却没有 shutdown 的组件. 消费者通常引用着所有者, 组件因此也引用着它,
+ * 所以清理依靠所有者的生命周期状态. 新加入的非根所有者以弱引用保存, 消费者都没有引用所有者时, 所有者被回收后同样会被清理.
+ *
+ * 开启导航预测 {@link #predictNavigation(int, long)} 后, 可导航的所有者启动时, 引擎在后台线程预热
+ * 它最可能的后继所有者需要的服务. 没有被用到的预热连接在持有时长之后释放.
+ *
+ * @param <Owner> 所有者类型
+ */
+public class EasyEngine<Owner> {
+
+    private final EasyScopes<Owner> mScopes;
+    private final EasyFeatureManager<Owner> mFeatureManager = new EasyFeatureManager<>();
+    private final Object mWriteLock = new Object();
+    private volatile EasyComponentTable mComponentTable = EasyComponentTable.EMPTY;
+
+    private final ReferenceQueue<Object> mLeakQueue = new ReferenceQueue<>();
+    private volatile EasyLeakListener mLeakListener = null;
+    private volatile EasyMetrics mMetrics = EasyMetrics.NONE;
+    private volatile int mMaxBound = 0;
+
+    private final EasyNavigation mNavigation = new EasyNavigation();
+    private volatile int mNavigationBudget = 0;
+    private volatile long mNavigationHoldMillis = 0;
+
+    public EasyEngine(EasyScopes<Owner> scopes) {
+        if (null == scopes) {
+            throw new IllegalArgumentException("Given scopes is Null");
+        }
+
+        this.mScopes = scopes;
+    }
+
+    public void use(EasyProvider<Owner> provider) {
+        mFeatureManager.use(provider);
+    }
+
+    public void useRegistry(EasyProviderRegistry<Owner> registry) {
+        mFeatureManager.useRegistry(registry);
+    }
+
+    public void watchLeaks(EasyLeakListener listener) {
+        mLeakListener = listener;
+    }
+
+    /**
+     * @param metrics 指标监听. 为空时不统计
+     */
+    public void metrics(EasyMetrics metrics) {
+        EasyMetrics current = null == metrics ? EasyMetrics.NONE : metrics;
+        synchronized (mWriteLock) {
+            mMetrics = current;
+            EasyComponentTable table = mComponentTable;
+            table.forEachKey(key -> {
+                EasyComponent component = table.get(key);
+                if (component instanceof EasyComponentHost) {
+                    ((EasyComponentHost<?>) component).metrics(current);
+                }
+            });
+        }
+    }
+
+    /**
+     * @param maxBound 每个根作用域同时绑定的服务数量上限. 超过时解绑最近最少使用的服务. 0 为不限制
+     */
+    public void maxBound(int maxBound) {
+        if (0 > maxBound) {
+            throw new IllegalArgumentException("Given max bound is Negative");
+        }
+
+        synchronized (mWriteLock) {
+            mMaxBound = maxBound;
+            EasyComponentTable table = mComponentTable;
+            table.forEachKey(key -> {
+                EasyComponent component = table.get(key);
+                if (component instanceof EasyComponentHost) {
+                    ((EasyComponentHost<?>) component).maxBound(maxBound);
+                }
+            });
+        }
+    }
+
+    /**
+     * 内存紧张时解绑所有者所在根作用域中不高于该优先级的服务. 根作用域还没有启动时忽略
+     *
+     * @param owner 所有者
+     * @param priority 解绑的最高优先级
+     * @see EasyComponentHost#trim(EasyServicePriority)
+     */
+    public void trim(Owner owner, EasyServicePriority priority) {
+        EasyComponentHost<Owner> host = host(owner);
+        if (null != host) {
+            host.trim(priority);
+        }
+    }
+
+    /**
+     * @return 当前的指标监听. 没有设置时为 {@link EasyMetrics#NONE}
+     */
+    public EasyMetrics metrics() {
+        return mMetrics;
+    }
+
+    /**
+     * 开启导航预测. 需要在 startup 客户端所有者之前调用
+     *
+     * @param budget 每次最多预热的服务数量. 传入 0 关闭
+     * @param holdMillis 没有被使用的预热服务保持连接的时长 (毫秒)
+     */
+    public void predictNavigation(int budget, long holdMillis) {
+        if (0 > budget) {
+            throw new IllegalArgumentException("Given budget is Negative");
+        }
+
+        if (0 > holdMillis) {
+            throw new IllegalArgumentException("Given hold millis is Negative");
+        }
+
+        mNavigationHoldMillis = holdMillis;
+        mNavigationBudget = budget;
+    }
+
+    /**
+     * 记录所有者所在根作用域之后 require 的服务类型. 根作用域还没有启动时忽略
+     *
+     * @param owner 所有者
+     * @param profile 记录. 为空时停止记录
+     */
+    public void record(Owner owner, EasyStartupProfile profile) {
+        EasyComponentHost<Owner> host = host(owner);
+        if (null != host) {
+            host.record(profile);
+        }
+    }
+
+    /**
+     * 在所有者所在的根作用域预热服务. 根作用域还没有启动 (或已经关闭) 时忽略
+     *
+     * @param owner 所有者
+     * @param services 服务类型
+     * @param holdMillis 没有被使用的服务保持连接的时长 (毫秒)
+     * @see EasyComponentHost#prewarm(Collection, long)
+     */
+    public void prewarm(Owner owner, Collection<Class<?>> services, long holdMillis) {
+        EasyComponentHost<Owner> host = host(owner);
+        if (null != host) {
+            host.prewarm(services, holdMillis);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private EasyComponentHost<Owner> host(Owner owner) {
+        if (null == owner) {
+            throw new IllegalArgumentException("Given owner is Null");
+        }
+
+        EasyComponent component = mComponentTable.get(mScopes.rootOf(owner));
+        return component instanceof EasyComponentHost ? (EasyComponentHost<Owner>) component : null;
+    }
+
+    public void startup(Owner owner) {
+        boolean traced = EasyTrace.begin(EasyTrace.SECTION_STARTUP);
+        try {
+            internalStartup(owner);
+        } finally {
+            if (traced) {
+                EasyTrace.end();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void internalStartup(Owner owner) {
+        if (null == owner) {
+            throw new IllegalArgumentException("Given owner is Null");
+        }
+
+        expunge();
+
+        EasyComponent component = mComponentTable.get(owner);
+        boolean navigated = false;
+        if (null == component) {
+            synchronized (mWriteLock) {
+                EasyComponentTable table = mComponentTable;
+                component = table.get(owner);
+                if (null == component) {
+                    Owner root = mScopes.rootOf(owner);
+                    EasyComponentHost<Owner> host = (EasyComponentHost<Owner>) table.get(root);
+                    if (null == host) {
+                        host = new EasyComponentHost<>(root, mFeatureManager);
+                        host.metrics(mMetrics);
+                        host.maxBound(mMaxBound);
+                        table = table.put(root, host);
+                    }
+
+                    if (owner != root) {
+                        component = new EasyComponentClient(owner, host);
+                        if (0 < mNavigationBudget && mScopes.isNavigable(owner)) {
+                            ((EasyComponentClient) component).learn(mNavigation);
+                            navigated = true;
+                        }
+                        table = table.put(owner, component, null == mLeakListener ? null : mLeakQueue);
+                    } else {
+                        component = host;
+                    }
+
+                    mComponentTable = table;
+                }
+            }
+        }
+
+        // 组件的启动在锁外进行. 组件自身保证生命周期的线程安全
+        component.startup();
+
+        if (navigated) {
+            predict(owner);
+        }
+    }
+
+    /**
+     * 学习一次跳转, 并预热后继所有者需要的服务
+     */
+    private void predict(Owner owner) {
+        Class<?> key = owner.getClass();
+        mNavigation.onStartup(key);
+
+        List<Class<?>> services = mNavigation.predict(key, mNavigationBudget);
+        if (services.isEmpty()) {
+            return;
+        }
+
+        EasyComponentHost<Owner> host = host(owner);
+        if (null != host) {
+            long holdMillis = mNavigationHoldMillis;
+            EasyPlatform.current().executeInBackground(() -> host.prewarm(services, holdMillis));
+        }
+    }
+
+    public void shutdown(Owner owner) {
+        if (null == owner) {
+            throw new IllegalArgumentException("Given owner is Null");
+        }
+
+        expunge();
+
+        EasyComponent component;
+        synchronized (mWriteLock) {
+            component = mComponentTable.get(owner);
+            mComponentTable = mComponentTable.remove(owner);
+        }
+
+        if (null != component) {
+            component.shutdown();
+        }
+    }
+
+    public EasyResolver from(Owner owner) {
+        if (null == owner) {
+            throw new IllegalArgumentException("Given owner is Null");
+        }
+
+        EasyComponent component = mComponentTable.get(owner);
+        if (null == component) {
+            throw new IllegalStateException("You must invoke Easy.start("+owner+") before invoke this method");
+        }
+
+        return component;
+    }
+
+    /**
+     * 清理泄漏的组件: 所有者已经被回收, 或者已经销毁却没有调用 shutdown
+     */
+    @SuppressWarnings("unchecked")
+    private void expunge() {
+        EasyLeakListener listener = mLeakListener;
+        if (null == listener) {
+            return;
+        }
+
+        List<EasyComponentTable.Key> leaks = new ArrayList<>();
+        List<EasyComponent> components = new ArrayList<>();
+        synchronized (mWriteLock) {
+            Reference<?> reference;
+            while (null != (reference = mLeakQueue.poll())) {
+                leaks.add((EasyComponentTable.Key) reference);
+            }
+
+            mComponentTable.forEachKey(key -> {
+                Object owner = key.get();
+                if (key.isWeak() && null != owner && mScopes.isDestroyed((Owner) owner)) {
+                    leaks.add(key);
+                }
+            });
+
+            if (leaks.isEmpty()) {
+                return;
+            }
+
+            EasyComponentTable table = mComponentTable;
+            for (EasyComponentTable.Key key : leaks) {
+                components.add(table.get(key));
+                table = table.remove(key);
+            }
+            mComponentTable = table;
+        }
+
+        for (int i = 0; i < leaks.size(); i++) {
+            EasyComponent component = components.get(i);
+            if (null != component) {
+                component.shutdown();
+                listener.onLeak(leaks.get(i).description);
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.zhennan.tool.easy.EasyServicePriority;
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+
+/**
+ * 服务提供者管理
+ *
+ * @param <Owner> 服务代理的所有者类型
+ */
+class EasyFeatureManager<Owner> implements EasyProvider<Owner> {
+
+    /**
+     * 索引中表示 "没有任何 Feature 提供该服务" 的占位标记
+     */
+    private static final EasyProvider MISSING = new EasyProvider() {
+        @Override
+        public boolean contains(Class serviceClass) {
+            return false;
+        }
+
+        @Override
+        public EasyServiceProxy create(Class serviceClass, Object owner) {
+            throw new IllegalArgumentException("Given Service["+serviceClass+"] not exist");
+        }
+    };
+
+    // 按照 use 的先后顺序保存, 先注册的 Feature 优先匹配
+    private final Map<String, EasyProvider<Owner>> mFeatureMap = new LinkedHashMap<>();
+
+    // 服务类型 -> Feature 的索引. 没有匹配的类型记录为 MISSING
+    // 命中索引时不加锁. 写入 (use / 首次匹配) 在当前实例上同步
+    private final Map<Class<?>, EasyProvider<Owner>> mFeatureIndex = new ConcurrentHashMap<>();
+
+    // 进程单例的服务代理. 在当前实例上同步
+    private final Map<Class<?>, EasyServiceProxy<?>> mSingletonMap = new HashMap<>();
+
+    public synchronized void use(EasyProvider<Owner> feature) {
+        if (null == feature) {
+            throw new IllegalArgumentException("Given EasyFeature is Null");
+        }
+
+        String token = feature.getClass().getName();
+        if (!mFeatureMap.containsKey(token)) {
+            mFeatureMap.put(token, feature);
+            index(feature);
+            feature.observe(this::invalidate);
+        } else {
+            // warning to coder that he use same feature for twice
+        }
+    }
+
+    /**
+     * 某个 Feature 提供的服务发生变化. 已经建立的索引 (包括没有命中的结果) 都可能失效, 重新建立
+     */
+    private synchronized void invalidate() {
+        mFeatureIndex.clear();
+        for (EasyProvider<Owner> feature : mFeatureMap.values()) {
+            index(feature);
+        }
+    }
+
+    public synchronized void useRegistry(EasyProviderRegistry<Owner> registry) {
+        if (null == registry) {
+            throw new IllegalArgumentException("Given EasyFeatureRegistry is Null");
+        }
+
+        String token = registry.getClass().getName();
+        if (!mFeatureMap.containsKey(token)) {
+            RegistryFeature<Owner> feature = new RegistryFeature<>(registry);
+            mFeatureMap.put(token, feature);
+            index(feature);
+        } else {
+            // warning to coder that he use same registry for twice
+        }
+    }
+
+    /**
+     * 新的 Feature 只排在已有 Feature 之后, 所以已经命中的索引保持不变.
+     * 能够列举服务的 Feature 直接为它的服务建立索引; 其余的只重新检查之前没有命中的服务类型.
+     */
+    private void index(EasyProvider<Owner> feature) {
+        Set<Class<?>> services = feature.services();
+        if (null != services && !services.isEmpty()) {
+            for (Class<?> service : services) {
+                EasyProvider<Owner> matched = mFeatureIndex.get(service);
+                if (null == matched) {
+                    // 更早注册但不能列举服务的 Feature 仍然优先
+                    mFeatureIndex.put(service, find(service));
+                } else if (MISSING == matched) {
+                    mFeatureIndex.put(service, feature);
+                }
+            }
+            return;
+        }
+
+        for (Map.Entry<Class<?>, EasyProvider<Owner>> entry : mFeatureIndex.entrySet()) {
+            if (MISSING == entry.getValue()) {
+                EasyProvider<Owner> matched = probe(feature, entry.getKey());
+                if (null != matched) {
+                    entry.setValue(matched);
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查 Feature 是否提供目标服务. 注册表直接返回它所记录的 Feature, 能够列举服务的 Feature 直接检查列表,
+     * 都不需要调用 contains
+     */
+    private EasyProvider<Owner> probe(EasyProvider<Owner> feature, Class<?> def) {
+        if (feature instanceof RegistryFeature) {
+            return ((RegistryFeature<Owner>) feature).registry.find(def);
+        }
+
+        Set<Class<?>> services = feature.services();
+        if (null != services && !services.isEmpty()) {
+            return services.contains(def) ? feature : null;
+        }
+        return feature.contains(def) ? feature : null;
+    }
+
+    private EasyProvider<Owner> match(Class<?> def) {
+        EasyProvider<Owner> matched = mFeatureIndex.get(def);
+        if (null == matched) {
+            matched = matchSlowly(def);
+        }
+        return MISSING == matched ? null : matched;
+    }
+
+    private synchronized EasyProvider<Owner> matchSlowly(Class<?> def) {
+        EasyProvider<Owner> matched = mFeatureIndex.get(def);
+        if (null == matched) {
+            matched = find(def);
+            mFeatureIndex.put(def, matched);
+        }
+        return matched;
+    }
+
+    /**
+     * 按照 use 的先后顺序查找第一个提供目标服务的 Feature
+     * @return Feature. 没有时为 MISSING
+     */
+    private EasyProvider<Owner> find(Class<?> def) {
+        for (EasyProvider<Owner> feature : mFeatureMap.values()) {
+            EasyProvider<Owner> found = probe(feature, def);
+            if (null != found) {
+                return found;
+            }
+        }
+        return MISSING;
+    }
+
+    @Override
+    public <T> boolean contains(Class<T> theClass) {
+        return null != match(theClass);
+    }
+
+    @Override
+    public <T> EasyServiceProxy<T> create(Class<T> serviceClass, Owner owner) {
+        EasyProvider<Owner> feature = match(serviceClass);
+        if (null == feature) {
+            throw new IllegalArgumentException("Given Service["+serviceClass+"] not exist");
+        }
+        return feature.create(serviceClass, owner);
+    }
+
+    /**
+     * 获取 {@link EasyServiceScope#SINGLETON} 服务的代理. 第一次获取时创建, 之后总是返回同一个代理
+     */
+    public synchronized <T> EasyServiceProxy<T> obtain(Class<T> serviceClass, Owner owner) {
+        EasyServiceProxy<T> proxy = (EasyServiceProxy<T>) mSingletonMap.get(serviceClass);
+        if (null == proxy) {
+            proxy = create(serviceClass, owner);
+            mSingletonMap.put(serviceClass, proxy);
+        }
+        return proxy;
+    }
+
+    @Override
+    public long keepAliveMillis(Class<?> serviceClass) {
+        EasyProvider<Owner> feature = match(serviceClass);
+        return null == feature ? 0 : feature.keepAliveMillis(serviceClass);
+    }
+
+    @Override
+    public EasyServiceScope scopeOf(Class<?> serviceClass) {
+        EasyProvider<Owner> feature = match(serviceClass);
+        return null == feature ? EasyServiceScope.HOST : feature.scopeOf(serviceClass);
+    }
+
+    @Override
+    public Set<Class<?>> dependenciesOf(Class<?> serviceClass) {
+        EasyProvider<Owner> feature = match(serviceClass);
+        return null == feature ? Collections.emptySet() : feature.dependenciesOf(serviceClass);
+    }
+
+    @Override
+    public EasyServicePriority priorityOf(Class<?> serviceClass) {
+        EasyProvider<Owner> feature = match(serviceClass);
+        return null == feature ? EasyServicePriority.NORMAL : feature.priorityOf(serviceClass);
+    }
+
+    /**
+     * 把注册表包装成 Feature, 与普通 Feature 一起按照 use 的先后顺序参与匹配
+     */
+    private static class RegistryFeature<Owner> implements EasyProvider<Owner> {
+
+        private final EasyProviderRegistry<Owner> registry;
+
+        RegistryFeature(EasyProviderRegistry<Owner> registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public <EasyService> boolean contains(Class<EasyService> serviceClass) {
+            return null != registry.find(serviceClass);
+        }
+
+        @Override
+        public <EasyService> EasyServiceProxy<EasyService> create(Class<EasyService> serviceClass, Owner owner) {
+            EasyProvider<Owner> feature = registry.find(serviceClass);
+            if (null == feature) {
+                throw new IllegalArgumentException("Given Service["+serviceClass+"] not exist");
+            }
+            return feature.create(serviceClass, owner);
+        }
+
+        @Override
+        public long keepAliveMillis(Class<?> serviceClass) {
+            EasyProvider<Owner> feature = registry.find(serviceClass);
+            return null == feature ? 0 : feature.keepAliveMillis(serviceClass);
+        }
+
+        @Override
+        public EasyServiceScope scopeOf(Class<?> serviceClass) {
+            EasyProvider<Owner> feature = registry.find(serviceClass);
+            return null == feature ? EasyServiceScope.HOST : feature.scopeOf(serviceClass);
+        }
+
+        @Override
+        public Set<Class<?>> dependenciesOf(Class<?> serviceClass) {
+            EasyProvider<Owner> feature = registry.find(serviceClass);
+            return null == feature ? Collections.emptySet() : feature.dependenciesOf(serviceClass);
+        }
+
+        @Override
+        public EasyServicePriority priorityOf(Class<?> serviceClass) {
+            EasyProvider<Owner> feature = registry.find(serviceClass);
+            return null == feature ? EasyServicePriority.NORMAL : feature.priorityOf(serviceClass);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 导航预测
+ *
+ * 从组件的启动顺序学习 组件类型 -> 组件类型 的跳转次数, 同时记录每种组件 require 过的服务.
+ * 组件启动时按跳转次数从高到低选出它最可能的后继组件, 返回后继组件需要的服务, 交给宿主预热.
+ */
+final class EasyNavigation {
+
+    private final Map<Class<?>, Node> mNodes = new HashMap<>();
+    private Class<?> mCurrent = null;
+
+    /**
+     * 组件启动. 记录一次从上一个启动的组件到该组件的跳转
+     * @param key 组件类型
+     */
+    synchronized void onStartup(Class<?> key) {
+        Class<?> previous = mCurrent;
+        mCurrent = key;
+        if (null != previous && previous != key) {
+            Map<Class<?>, Integer> successors = node(previous).successors;
+            Integer count = successors.get(key);
+            successors.put(key, null == count ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * @param key 组件类型
+     * @param serviceClass 组件 require 的服务
+     */
+    synchronized void onRequire(Class<?> key, Class<?> serviceClass) {
+        node(key).services.add(serviceClass);
+    }
+
+    /**
+     * @param key 刚刚启动的组件类型
+     * @param budget 最多返回的服务数量
+     * @return 最可能的后继组件需要的服务, 按可能性从高到低排列. 不包括该组件自己需要的服务
+     */
+    synchronized List<Class<?>> predict(Class<?> key, int budget) {
+        Node node = mNodes.get(key);
+        if (null == node || node.successors.isEmpty() || 0 >= budget) {
+            return new ArrayList<>();
+        }
+
+        List<Map.Entry<Class<?>, Integer>> successors = new ArrayList<>(node.successors.entrySet());
+        successors.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+
+        Set<Class<?>> services = new LinkedHashSet<>();
+        for (Map.Entry<Class<?>, Integer> successor : successors) {
+            Node next = mNodes.get(successor.getKey());
+            if (null == next) {
+                continue;
+            }
+
+            for (Class<?> serviceClass : next.services) {
+                if (services.size() >= budget) {
+                    return new ArrayList<>(services);
+                }
+                if (!node.services.contains(serviceClass)) {
+                    services.add(serviceClass);
+                }
+            }
+        }
+        return new ArrayList<>(services);
+    }
+
+    private Node node(Class<?> key) {
+        Node node = mNodes.get(key);
+        if (null == node) {
+            node = new Node();
+            mNodes.put(key, node);
+        }
+        return node;
+    }
+
+    private static final class Node {
+        // 后继组件类型 -> 跳转次数
+        final Map<Class<?>, Integer> successors = new HashMap<>();
+        // 按第一次 require 的顺序
+        final Set<Class<?>> services = new LinkedHashSet<>();
+    }
+}
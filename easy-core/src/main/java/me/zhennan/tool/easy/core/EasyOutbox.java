@@ -0,0 +1,165 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 宿主锁外的通知队列
+ *
+ * 持有宿主锁时产生的通知先按顺序放入队列, 释放锁之后再回调消费者. 消费者 (以及接在 requireAsync 结果上的代码)
+ * 因此不会在宿主锁内执行, 也不会阻塞其他线程的 require.
+ *
+ * 同一时间只有一个线程回调队列中的通知, 所有通知按照产生的顺序送达. 其他线程释放锁时如果已经有线程在回调,
+ * 新的通知由这个线程继续送达. 回调中再次 require 产生的通知在当前回调返回之后送达.
+ *
+ * 队列使用循环数组, 容量只增不减. 稳定状态下入队和送达都不分配对象.
+ */
+final class EasyOutbox {
+
+    /**
+     * 在宿主锁内直接回调的内部消费者. 它们只维护宿主或客户端的状态, 再把通知转交给真正的消费者
+     */
+    interface Locked extends BiConsumer<Object, Class<Object>> { }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Object mLock;
+
+    // 以下状态在队列自身上同步
+    private BiConsumer[] mConsumers = new BiConsumer[INITIAL_CAPACITY];
+    private Object[] mServices = new Object[INITIAL_CAPACITY];
+    private Class[] mServiceClasses = new Class[INITIAL_CAPACITY];
+    private int mHead = 0;
+    private int mSize = 0;
+    private boolean mDraining = false;
+
+    /**
+     * @param lock 宿主锁. 持有该锁时 {@link #flush()} 不回调
+     */
+    EasyOutbox(Object lock) {
+        this.mLock = lock;
+    }
+
+    /**
+     * 通知消费者. 内部消费者直接回调, 其他消费者放入队列等待 {@link #flush()}
+     */
+    void post(BiConsumer consumer, Object service, Class serviceClass) {
+        if (consumer instanceof Locked) {
+            consumer.accept(service, serviceClass);
+            return;
+        }
+
+        synchronized (this) {
+            if (mSize == mConsumers.length) {
+                grow();
+            }
+
+            int tail = (mHead + mSize) & (mConsumers.length - 1);
+            mConsumers[tail] = consumer;
+            mServices[tail] = service;
+            mServiceClasses[tail] = serviceClass;
+            mSize++;
+        }
+    }
+
+    /**
+     * 丢弃还没有送达给该消费者的通知. 消费者注销之后不再收到通知
+     */
+    synchronized void cancel(BiConsumer consumer) {
+        int mask = mConsumers.length - 1;
+        for (int i = 0; i < mSize; i++) {
+            int index = (mHead + i) & mask;
+            BiConsumer existing = mConsumers[index];
+            if (null != existing && EasyComponent.matches(existing, consumer)) {
+                mConsumers[index] = null;
+                mServices[index] = null;
+                mServiceClasses[index] = null;
+            }
+        }
+    }
+
+    /**
+     * 送达队列中的通知. 持有宿主锁或者已经有线程在送达时直接返回
+     *
+     * 消费者抛出的异常在所有通知送达之后抛出
+     */
+    void flush() {
+        if (Thread.holdsLock(mLock)) {
+            return;
+        }
+
+        synchronized (this) {
+            if (0 == mSize || mDraining) {
+                return;
+            }
+            mDraining = true;
+        }
+
+        RuntimeException error = null;
+        boolean drained = false;
+        try {
+            while (true) {
+                BiConsumer consumer;
+                Object service;
+                Class serviceClass;
+                synchronized (this) {
+                    // 与判断队列为空在同一个同步块内退出, 否则其他线程此时入队的通知会无人送达
+                    if (0 == mSize) {
+                        mDraining = false;
+                        drained = true;
+                        break;
+                    }
+
+                    consumer = mConsumers[mHead];
+                    service = mServices[mHead];
+                    serviceClass = mServiceClasses[mHead];
+                    mConsumers[mHead] = null;
+                    mServices[mHead] = null;
+                    mServiceClasses[mHead] = null;
+                    mHead = (mHead + 1) & (mConsumers.length - 1);
+                    mSize--;
+                }
+
+                if (null == consumer) {
+                    // 已经注销
+                    continue;
+                }
+
+                try {
+                    consumer.accept(service, serviceClass);
+                } catch (RuntimeException e) {
+                    if (null == error) {
+                        error = e;
+                    }
+                }
+            }
+        } finally {
+            if (!drained) {
+                synchronized (this) {
+                    mDraining = false;
+                }
+            }
+        }
+
+        if (null != error) {
+            throw error;
+        }
+    }
+
+    private void grow() {
+        int capacity = mConsumers.length;
+        BiConsumer[] consumers = new BiConsumer[capacity * 2];
+        Object[] services = new Object[capacity * 2];
+        Class[] serviceClasses = new Class[capacity * 2];
+        for (int i = 0; i < mSize; i++) {
+            int index = (mHead + i) & (capacity - 1);
+            consumers[i] = mConsumers[index];
+            services[i] = mServices[index];
+            serviceClasses[i] = mServiceClasses[index];
+        }
+
+        mConsumers = consumers;
+        mServices = services;
+        mServiceClasses = serviceClasses;
+        mHead = 0;
+    }
+}
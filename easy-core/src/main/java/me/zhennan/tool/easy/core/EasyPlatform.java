@@ -0,0 +1,82 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台能力
+ *
+ * 引擎需要的线程调度与系统追踪能力. 默认实现适用于普通 JVM:
+ * 延时任务和 "主线程" 任务都在一个共享的后台守护线程上执行, 不写入系统追踪.
+ *
+ * 平台适配层在使用引擎之前通过 {@link #install(EasyPlatform)} 安装自己的实现.
+ */
+public class EasyPlatform {
+
+    private static volatile EasyPlatform sCurrent = new EasyPlatform();
+
+    /**
+     * @return 当前安装的平台
+     */
+    public static EasyPlatform current() {
+        return sCurrent;
+    }
+
+    /**
+     * @param platform 平台实现. 为空时恢复默认实现
+     */
+    public static void install(EasyPlatform platform) {
+        sCurrent = null == platform ? new EasyPlatform() : platform;
+    }
+
+    /**
+     * @return 当前线程是否为主线程. 主线程上不允许阻塞等待服务
+     */
+    public boolean isMainThread() {
+        return false;
+    }
+
+    /**
+     * 在主线程执行任务
+     */
+    public void executeOnMainThread(Runnable task) {
+        EasyDeadline.schedule(task, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在后台线程执行任务. 用于读写文件, 预热连接等不应占用主线程的工作
+     */
+    public void executeInBackground(Runnable task) {
+        EasyDeadline.schedule(task, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 延时执行任务
+     * @param task 任务
+     * @param delayMillis 延时 (毫秒)
+     * @return 取消任务的指令
+     */
+    public Runnable postDelayed(Runnable task, long delayMillis) {
+        ScheduledFuture<?> future = EasyDeadline.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        return () -> future.cancel(false);
+    }
+
+    /**
+     * 开始一个系统追踪 section
+     */
+    public void beginSection(String section) {
+    }
+
+    /**
+     * 结束当前线程最近开始的系统追踪 section
+     */
+    public void endSection() {
+    }
+
+    /**
+     * @return 当前进程号. 用于导出时间线
+     */
+    public int processId() {
+        return 0;
+    }
+}
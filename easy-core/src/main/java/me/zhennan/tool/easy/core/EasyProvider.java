@@ -0,0 +1,99 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.Collections;
+import java.util.Set;
+
+import me.zhennan.tool.easy.EasyServicePriority;
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+
+/**
+ * 服务提供者
+ *
+ * 与平台无关的服务提供接口. Android 上对应 {@code me.zhennan.tool.easy.EasyFeature}, 所有者为 Context.
+ *
+ * @param <Owner> 服务代理的所有者类型
+ */
+public interface EasyProvider<Owner> {
+
+    /**
+     * @param serviceClass 服务类型
+     * @param <EasyService> 服务类型定义
+     * @return 是否提供目标服务
+     */
+    <EasyService> boolean contains(Class<EasyService> serviceClass);
+
+    /**
+     * 提供的全部服务类型
+     *
+     * 能够列举时, 使用方在 use 时直接为这些服务建立索引, 之后查找不再调用 {@link #contains(Class)}.
+     * 返回值必须与 {@link #contains(Class)} 一致.
+     *
+     * @return 服务类型. 默认为空, 表示不能列举, 第一次查找时再通过 {@link #contains(Class)} 检查
+     */
+    default Set<Class<?>> services() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * 监听提供的服务发生变化 (例如 use 之后又新增了服务). 变化时使用方丢弃已经建立的索引
+     *
+     * @param observer 变化通知. 默认提供的服务不会变化, 不需要保存
+     */
+    default void observe(Runnable observer) {
+    }
+
+    /**
+     * @param serviceClass 服务类型
+     * @param owner 服务代理的所有者 (根作用域)
+     * @param <EasyService> 服务类型定义
+     * @return 服务代理
+     */
+    <EasyService> EasyServiceProxy<EasyService> create(Class<EasyService> serviceClass, Owner owner);
+
+    /**
+     * 服务的保活时长
+     *
+     * 最后一个消费者释放之后, 服务代理在保活时长内保持连接. 期间再次 require 直接复用. 超时后关闭.
+     *
+     * @param serviceClass 服务类型
+     * @return 保活时长 (毫秒). 小于等于 0 表示立即关闭
+     */
+    default long keepAliveMillis(Class<?> serviceClass) {
+        return 0;
+    }
+
+    /**
+     * 服务的作用域
+     *
+     * @param serviceClass 服务类型
+     * @return 作用域. 默认为 {@link EasyServiceScope#HOST}
+     */
+    default EasyServiceScope scopeOf(Class<?> serviceClass) {
+        return EasyServiceScope.HOST;
+    }
+
+    /**
+     * 服务依赖的其他服务
+     *
+     * 宿主先启动所有依赖 (互不依赖的服务同时启动), 依赖全部可用之后才启动该服务, 服务可用后再分发给消费者.
+     * 因此服务代理在连接过程中可以通过 {@link me.zhennan.tool.easy.EasyResolver#peek(Class)} 直接取得依赖.
+     * 依赖之间不允许出现环.
+     *
+     * @param serviceClass 服务类型
+     * @return 依赖的服务类型. 默认没有依赖
+     */
+    default Set<Class<?>> dependenciesOf(Class<?> serviceClass) {
+        return Collections.emptySet();
+    }
+
+    /**
+     * 服务的优先级. 内存紧张或超过绑定数量上限时, 低优先级的服务先被解绑
+     *
+     * @param serviceClass 服务类型
+     * @return 优先级. 默认为 {@link EasyServicePriority#NORMAL}
+     */
+    default EasyServicePriority priorityOf(Class<?> serviceClass) {
+        return EasyServicePriority.NORMAL;
+    }
+}
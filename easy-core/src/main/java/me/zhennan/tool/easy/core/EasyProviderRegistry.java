@@ -0,0 +1,15 @@
+package me.zhennan.tool.easy.core;
+
+/**
+ * 服务提供者注册表. 通过服务类型直接查找提供者
+ *
+ * @param <Owner> 服务代理的所有者类型
+ */
+public interface EasyProviderRegistry<Owner> {
+
+    /**
+     * @param serviceClass 服务类型
+     * @return 提供目标服务的提供者. 没有则返回 null
+     */
+    EasyProvider<Owner> find(Class<?> serviceClass);
+}
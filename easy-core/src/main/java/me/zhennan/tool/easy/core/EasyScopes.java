@@ -0,0 +1,36 @@
+package me.zhennan.tool.easy.core;
+
+/**
+ * 作用域关系
+ *
+ * 引擎以所有者 (Owner) 划分作用域. 每个所有者属于一个根作用域, 根作用域持有所有的服务代理.
+ * Android 上所有者为 Context, 根作用域为 ApplicationContext.
+ *
+ * @param <Owner> 所有者类型
+ */
+public interface EasyScopes<Owner> {
+
+    /**
+     * @param owner 所有者
+     * @return 所有者所属的根作用域. 根作用域返回自身
+     */
+    Owner rootOf(Owner owner);
+
+    /**
+     * 开启泄漏检测后, 已经销毁却没有 shutdown 的所有者会被自动清理
+     * @param owner 所有者
+     * @return 所有者是否已经销毁
+     */
+    default boolean isDestroyed(Owner owner) {
+        return false;
+    }
+
+    /**
+     * 开启导航预测后, 只有可导航的所有者参与学习和预测
+     * @param owner 所有者
+     * @return 所有者是否为可导航的页面 (例如 Activity)
+     */
+    default boolean isNavigable(Owner owner) {
+        return true;
+    }
+}
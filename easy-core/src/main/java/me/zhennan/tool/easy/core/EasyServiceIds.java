@@ -0,0 +1,35 @@
+package me.zhennan.tool.easy.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 服务编号
+ *
+ * 每个服务类型在进程内第一次使用时分配一个从 0 开始的连续整数编号. 组件以编号为下标在数组中保存服务代理和消费者,
+ * 分发和查找时不再需要对 Class 做哈希.
+ *
+ * Android 上没有 ClassValue, 因此编号保存在 ConcurrentHashMap 中: 已分配编号的查找是一次无锁读取.
+ * 编号不会回收, 服务类型的数量决定了组件数组的长度.
+ */
+final class EasyServiceIds {
+
+    private static final ConcurrentHashMap<Class<?>, Integer> sIds = new ConcurrentHashMap<>();
+    private static final AtomicInteger sNext = new AtomicInteger();
+    private static final Function<Class<?>, Integer> NEXT = serviceClass -> sNext.getAndIncrement();
+
+    private EasyServiceIds() {}
+
+    /**
+     * @param serviceClass 服务类型
+     * @return 服务编号
+     */
+    static int of(Class<?> serviceClass) {
+        Integer id = sIds.get(serviceClass);
+        if (null == id) {
+            id = sIds.computeIfAbsent(serviceClass, NEXT);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,85 @@
+package me.zhennan.tool.easy.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 冷启动服务使用记录
+ *
+ * 按第一次 require 的先后顺序记录服务类型 (重复的只记录一次). 以每行一个类名的文本格式读写,
+ * 下一次冷启动时交给 {@link EasyEngine#prewarm(Object, java.util.Collection, long)} 提前连接.
+ */
+public class EasyStartupProfile {
+
+    private final Set<Class<?>> mServices = new LinkedHashSet<>();
+
+    /**
+     * @param serviceClass 服务类型
+     * @return 是否第一次记录该服务
+     */
+    public synchronized boolean add(Class<?> serviceClass) {
+        if (null == serviceClass) {
+            throw new IllegalArgumentException("Given service class is Null");
+        }
+        return mServices.add(serviceClass);
+    }
+
+    /**
+     * @return 按第一次 require 的先后顺序排列的服务类型
+     */
+    public synchronized List<Class<?>> services() {
+        return new ArrayList<>(mServices);
+    }
+
+    public synchronized boolean isEmpty() {
+        return mServices.isEmpty();
+    }
+
+    /**
+     * 写出记录. 每行一个类名
+     */
+    public void write(Writer writer) throws IOException {
+        if (null == writer) {
+            throw new IllegalArgumentException("Given writer is Null");
+        }
+
+        for (Class<?> serviceClass : services()) {
+            writer.write(serviceClass.getName());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * 读取记录. 已经不存在的类 (例如应用升级后被删除) 直接跳过
+     *
+     * @param reader 记录
+     * @param loader 加载服务类型的 ClassLoader
+     */
+    public static EasyStartupProfile read(Reader reader, ClassLoader loader) throws IOException {
+        if (null == reader) {
+            throw new IllegalArgumentException("Given reader is Null");
+        }
+
+        EasyStartupProfile profile = new EasyStartupProfile();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while (null != (line = lines.readLine())) {
+            String name = line.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            try {
+                profile.add(Class.forName(name, false, loader));
+            } catch (ClassNotFoundException | LinkageError ignored) { }
+        }
+        return profile;
+    }
+}
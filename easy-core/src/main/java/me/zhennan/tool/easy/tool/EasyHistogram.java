@@ -0,0 +1,111 @@
+package me.zhennan.tool.easy.tool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以 2 的幂为桶的直方图
+ *
+ * 第 0 个桶保存 0, 第 n 个桶保存 [2^(n-1), 2^n) 范围的值. 记录时只更新原子计数, 不分配对象, 可以在任意线程调用.
+ * 分位数按照所在桶的上界估算, 误差不超过一倍.
+ */
+public final class EasyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * @param value 记录值. 负数按 0 记录
+     */
+    public void record(long value) {
+        if (0 > value) {
+            value = 0;
+        }
+
+        mBuckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+        mCount.incrementAndGet();
+        mSum.addAndGet(value);
+
+        long max;
+        do {
+            max = mMax.get();
+        } while (value > max && !mMax.compareAndSet(max, value));
+    }
+
+    /**
+     * @return 记录次数
+     */
+    public long count() {
+        return mCount.get();
+    }
+
+    /**
+     * @return 所有记录值之和
+     */
+    public long sum() {
+        return mSum.get();
+    }
+
+    /**
+     * @return 最大记录值
+     */
+    public long max() {
+        return mMax.get();
+    }
+
+    /**
+     * @return 平均值. 没有记录时为 0
+     */
+    public long mean() {
+        long count = mCount.get();
+        return 0 == count ? 0 : mSum.get() / count;
+    }
+
+    /**
+     * @param percentile 分位 (0, 100]
+     * @return 分位数的估算值 (所在桶的上界, 不超过最大记录值). 没有记录时为 0
+     */
+    public long percentile(double percentile) {
+        if (0 >= percentile || 100 < percentile) {
+            throw new IllegalArgumentException("Given percentile should be in (0, 100]");
+        }
+
+        long count = mCount.get();
+        if (0 == count) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mBuckets.get(i);
+            if (seen >= rank) {
+                long upper = 0 == i ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upper, mMax.get());
+            }
+        }
+        return mMax.get();
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mBuckets.set(i, 0);
+        }
+        mCount.set(0);
+        mSum.set(0);
+        mMax.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "EasyHistogram{count:" + count() + ", mean:" + mean() + ", p50:" + percentile(50)
+                + ", p90:" + percentile(90) + ", p99:" + percentile(99) + ", max:" + max() + "}";
+    }
+}
@@ -0,0 +1,152 @@
+package me.zhennan.tool.easy.tool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import me.zhennan.tool.easy.EasyMetrics;
+
+/**
+ * 内置的指标统计
+ *
+ * 每个连接名称 / 服务类型的统计项在第一次出现时创建, 之后的事件只更新原子计数, 不再分配对象.
+ *
+ * <pre>
+ *     EasyMetricsRecorder recorder = new EasyMetricsRecorder();
+ *     Easy.metrics(recorder);
+ *     connection.metrics(recorder);
+ *     ...
+ *     Log.i(TAG, "bind latency: " + recorder.bindLatency());
+ * </pre>
+ */
+public class EasyMetricsRecorder implements EasyMetrics {
+
+    private static final Function<Object, EasyHistogram> NEW_HISTOGRAM = key -> new EasyHistogram();
+    private static final Function<Object, AtomicLong> NEW_COUNTER = key -> new AtomicLong();
+    private static final Function<Object, AtomicInteger> NEW_GAUGE = key -> new AtomicInteger();
+
+    private final EasyHistogram mBindLatency = new EasyHistogram();
+    private final EasyHistogram mTimeToFirstService = new EasyHistogram();
+    private final EasyHistogram mRetries = new EasyHistogram();
+    private final AtomicLong mDisconnectCount = new AtomicLong();
+    private final AtomicLong mGiveUpCount = new AtomicLong();
+
+    private final Map<String, EasyHistogram> mBindLatencyMap = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> mDisconnectMap = new ConcurrentHashMap<>();
+    private final Map<Class<?>, EasyHistogram> mTimeToFirstServiceMap = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicInteger> mConsumerMap = new ConcurrentHashMap<>();
+
+    @Override
+    public void onBind(String connection, long latencyNanos) {
+        mBindLatency.record(latencyNanos);
+        mBindLatencyMap.computeIfAbsent(connection, NEW_HISTOGRAM).record(latencyNanos);
+    }
+
+    @Override
+    public void onDisconnect(String connection) {
+        mDisconnectCount.incrementAndGet();
+        mDisconnectMap.computeIfAbsent(connection, NEW_COUNTER).incrementAndGet();
+    }
+
+    @Override
+    public void onRetry(String connection, int attempt) {
+        mRetries.record(attempt);
+    }
+
+    @Override
+    public void onGiveUp(String connection, int attempts) {
+        mGiveUpCount.incrementAndGet();
+    }
+
+    @Override
+    public void onFirstService(Class<?> serviceClass, long waitNanos) {
+        mTimeToFirstService.record(waitNanos);
+        mTimeToFirstServiceMap.computeIfAbsent(serviceClass, NEW_HISTOGRAM).record(waitNanos);
+    }
+
+    @Override
+    public void onConsumerCount(Class<?> serviceClass, int consumers) {
+        mConsumerMap.computeIfAbsent(serviceClass, NEW_GAUGE).set(consumers);
+    }
+
+    /**
+     * @return 所有连接的建立耗时 (纳秒)
+     */
+    public EasyHistogram bindLatency() {
+        return mBindLatency;
+    }
+
+    /**
+     * @return 目标连接的建立耗时 (纳秒). 没有记录时为 null
+     */
+    public EasyHistogram bindLatency(String connection) {
+        return mBindLatencyMap.get(connection);
+    }
+
+    /**
+     * @return 所有服务从 require 到第一次可用的耗时 (纳秒)
+     */
+    public EasyHistogram timeToFirstService() {
+        return mTimeToFirstService;
+    }
+
+    /**
+     * @return 目标服务从 require 到第一次可用的耗时 (纳秒). 没有记录时为 null
+     */
+    public EasyHistogram timeToFirstService(Class<?> serviceClass) {
+        return mTimeToFirstServiceMap.get(serviceClass);
+    }
+
+    /**
+     * @return 每次重连是连续的第几次重连
+     */
+    public EasyHistogram retries() {
+        return mRetries;
+    }
+
+    /**
+     * @return 放弃重连的次数
+     */
+    public long giveUpCount() {
+        return mGiveUpCount.get();
+    }
+
+    /**
+     * @return 所有连接的断开次数
+     */
+    public long disconnectCount() {
+        return mDisconnectCount.get();
+    }
+
+    /**
+     * @return 目标连接的断开次数
+     */
+    public long disconnectCount(String connection) {
+        AtomicLong count = mDisconnectMap.get(connection);
+        return null == count ? 0 : count.get();
+    }
+
+    /**
+     * @return 目标服务当前的消费者数量
+     */
+    public int consumerCount(Class<?> serviceClass) {
+        AtomicInteger count = mConsumerMap.get(serviceClass);
+        return null == count ? 0 : count.get();
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        mBindLatency.reset();
+        mTimeToFirstService.reset();
+        mRetries.reset();
+        mDisconnectCount.set(0);
+        mGiveUpCount.set(0);
+        mBindLatencyMap.clear();
+        mDisconnectMap.clear();
+        mTimeToFirstServiceMap.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package me.zhennan.tool.easy.tool;
+
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import me.zhennan.tool.easy.EasyServiceProxy;
+
+/**
+ * 进程内服务代理
+ *
+ * 服务实例在启动后第一次 provide 时由 factory 创建, 之后直接返回. 创建是线程安全的, 并且只会创建一次.
+ * 没有 IPC, 没有连接状态机, 也不投递任何线程任务: 启动后 {@link #provide()} 立即可用,
+ * 因此宿主在 startup 之后同步解决依赖, 不需要等待 asyncProvide 的回调.
+ *
+ * 关闭后实例被丢弃, 重新启动时重新创建.
+ *
+ * @param <T> 服务类型
+ */
+public class LocalEasyServiceProxy<T> implements EasyServiceProxy<T> {
+
+    private final Class<T> serviceClass;
+    private final Supplier<? extends T> factory;
+
+    private volatile boolean started = false;
+    private volatile T service = null;
+    private volatile BiConsumer<T, Class<T>> consumer = null;
+
+    public LocalEasyServiceProxy(Class<T> serviceClass, Supplier<? extends T> factory) {
+        if (null == serviceClass) {
+            throw new IllegalArgumentException("Given service class is Null");
+        }
+
+        if (null == factory) {
+            throw new IllegalArgumentException("Given factory is Null");
+        }
+
+        this.serviceClass = serviceClass;
+        this.factory = factory;
+    }
+
+    @Override
+    public T provide() {
+        T service = this.service;
+        if (null != service || !started) {
+            return service;
+        }
+
+        synchronized (this) {
+            service = this.service;
+            if (null == service && started) {
+                service = factory.get();
+                this.service = service;
+            }
+        }
+        return service;
+    }
+
+    @Override
+    public void asyncProvide(BiConsumer<T, Class<T>> consumer) {
+        this.consumer = consumer;
+    }
+
+    @Override
+    public boolean isStartup() {
+        return started;
+    }
+
+    @Override
+    public synchronized void startup() {
+        started = true;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return !started;
+    }
+
+    @Override
+    public void shutdown() {
+        T service;
+        synchronized (this) {
+            started = false;
+            service = this.service;
+            this.service = null;
+        }
+
+        BiConsumer<T, Class<T>> consumer = this.consumer;
+        if (null != service && null != consumer) {
+            consumer.accept(null, serviceClass);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package me.zhennan.tool.easy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EasyTraceTest {
+
+    @After
+    public void tearDown() {
+        EasyTrace.enable(false, 0);
+    }
+
+    /**
+     * 关闭时不记录任何事件
+     */
+    @Test
+    public void testDisabled() {
+        EasyTrace.enable(false, 0);
+
+        assertFalse(EasyTrace.begin(EasyTrace.SECTION_STARTUP));
+        assertEquals("{\"traceEvents\":[]}", EasyTrace.exportTimeline());
+    }
+
+    /**
+     * 时间线写满后覆盖最早的事件, 导出为 Chrome / Perfetto 的 JSON 格式
+     */
+    @Test
+    public void testTimeline() {
+        EasyTrace.enable(false, 3);
+
+        // TEST START ---------------------------------------------
+        assertTrue(EasyTrace.begin(EasyTrace.SECTION_STARTUP));
+        EasyTrace.end();
+        assertTrue(EasyTrace.begin(EasyTrace.SECTION_REGISTER));
+        EasyTrace.end();
+        String json = EasyTrace.exportTimeline();
+        // ------------------------------------------------ TEST END
+
+        assertTrue(json.startsWith("{\"traceEvents\":[{\"ph\":\"E\""));
+        assertFalse(json.contains(EasyTrace.SECTION_STARTUP));
+        assertTrue(json.contains("\"ph\":\"B\",\"name\":\"" + EasyTrace.SECTION_REGISTER + "\""));
+        assertTrue(json.endsWith("]}"));
+
+        // 关闭后保留已经记录的时间线
+        EasyTrace.disable();
+        assertFalse(EasyTrace.begin(EasyTrace.SECTION_RESOLVE));
+        assertEquals(json, EasyTrace.exportTimeline());
+    }
+}
@@ -0,0 +1,319 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.EasyDispatcher;
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+
+import static org.mockito.Mockito.*;
+import static org.junit.Assert.*;
+
+public class EasyComponentClientTest {
+
+
+
+    /**
+     * EasyComponentClient的实例 依赖所有者 (例如 Android 组件 Activity / Service) 和 EasyComponentHost
+     */
+    @Test
+    public void testInstantiation() {
+        EasyComponentHost MOCK_HOST = mock(EasyComponentHost.class);
+        Object MOCK_OWNER = new Object();
+        Object MOCK_ROOT = new Object();
+        when(MOCK_HOST.root()).thenReturn(MOCK_ROOT);
+
+        try {
+            new EasyComponentClient(null, MOCK_HOST);
+            fail("实例化时, owner 参数不允许空");
+        } catch (IllegalArgumentException ignored) {}
+
+        try {
+            new EasyComponentClient(MOCK_ROOT, MOCK_HOST);
+            fail("实例化时, owner 不允许为宿主的根所有者");
+        } catch (IllegalArgumentException ignored) {}
+
+        try {
+            new EasyComponentClient(MOCK_OWNER, null);
+            fail("实例化时, host 参数不允许空");
+        } catch (IllegalArgumentException ignored) {}
+
+
+        try {
+            new EasyComponentClient(MOCK_OWNER, MOCK_HOST);
+        } catch (Exception e) {
+            fail("正常实例化不能抛出任何异常: " + e.toString());
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    public void testLifeCycle() {
+        Object MOCK_OWNER = new Object();
+        EasyComponentHost MOCK_HOST = mock(EasyComponentHost.class);
+        when(MOCK_HOST.outbox()).thenReturn(new EasyOutbox(MOCK_HOST));
+
+        EasyComponentClient target = new EasyComponentClient(MOCK_OWNER, MOCK_HOST);
+        assertFalse(target.isStartup());
+        assertFalse(target.isShutdown());
+
+        target.startup();
+        assertTrue(target.isStartup());
+        assertFalse(target.isShutdown());
+
+        target.shutdown();
+        assertFalse(target.isStartup());
+        assertTrue(target.isShutdown());
+
+        // 再次启动会失败. 因为之前已经 shutdown 过了
+        target.startup();
+        assertFalse(target.isStartup());
+        assertTrue(target.isShutdown());
+    }
+
+    @Test
+    public void testChildrenManagementWithLifeCycle() {
+        Object MOCK_OWNER = new Object();
+        EasyComponentHost MOCK_HOST = mock(EasyComponentHost.class);
+        when(MOCK_HOST.outbox()).thenReturn(new EasyOutbox(MOCK_HOST));
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        EasyComponentClient target = new EasyComponentClient(MOCK_OWNER, MOCK_HOST);
+        target.require(MockService.class, MOCK_CONSUMER);
+
+        verify(MOCK_HOST, times(1)).register(same(MockService.class), any(BiConsumer.class));
+
+        verify(MOCK_HOST, never()).unregister(any(BiConsumer.class));
+        target.startup();
+
+        target.shutdown();
+        verify(MOCK_HOST, times(1)).unregister(any(BiConsumer.class));
+    }
+
+    @Test
+    public void testRequireWithLifeCycle() {
+        Object MOCK_OWNER = new Object();
+        EasyComponentHost MOCK_HOST = mock(EasyComponentHost.class);
+        when(MOCK_HOST.outbox()).thenReturn(new EasyOutbox(MOCK_HOST));
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        EasyComponentClient target = new EasyComponentClient(MOCK_OWNER, MOCK_HOST);
+        target.require(MockService.class, MOCK_CONSUMER);
+
+        verify(MOCK_HOST, never()).resolve(same(MockService.class), any(BiConsumer.class));
+        verify(MOCK_HOST, times(1)).register(same(MockService.class), any(BiConsumer.class));
+
+        target.startup();
+        verify(MOCK_HOST, times(1)).resolve(same(MockService.class), any(BiConsumer.class));
+    }
+
+
+    /**
+     * 客户端缓存已经解决的服务实例. 服务断开后缓存立即失效
+     */
+    @Test
+    public void testPeek() {
+        Object MOCK_ROOT = new Object();
+        Object MOCK_OWNER = new Object();
+        MockService MOCK_SERVICE = mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mock(EasyServiceProxy.class);
+        when(MOCK_PROXY.isStartup()).thenReturn(true);
+
+        EasyFeatureManager MOCK_MANAGER = mock(EasyFeatureManager.class);
+        when(MOCK_MANAGER.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        when(MOCK_MANAGER.contains(MockService.class)).thenReturn(true);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost host = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        EasyComponentClient target = new EasyComponentClient(MOCK_OWNER, host);
+        target.startup();
+        assertNull(target.peek(MockService.class));
+
+        target.require(MockService.class, MOCK_CONSUMER);
+        assertNull(target.peek(MockService.class));
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(MOCK_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+        assertSame(MOCK_SERVICE, host.peek(MockService.class));
+        assertNull(target.peek(OtherService.class));
+
+        // TEST START ---------------------------------------------
+        captor.getValue().accept(null, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        assertNull(target.peek(MockService.class));
+        verify(MOCK_CONSUMER).accept(MOCK_SERVICE, MockService.class);
+        verify(MOCK_CONSUMER).accept(null, MockService.class);
+
+        // TEST START ---------------------------------------------
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        target.shutdown();
+        // ------------------------------------------------ TEST END
+
+        assertNull(target.peek(MockService.class));
+    }
+
+    /**
+     * 组件独享的服务每个组件创建一个代理, 临时服务每次 require 创建一个代理. 都随组件关闭
+     */
+    @Test
+    public void testScopes() {
+        Object MOCK_ROOT = new Object();
+        EasyServiceProxy<MockService> MOCK_PROXY = mock(EasyServiceProxy.class);
+        EasyServiceProxy<OtherService> OTHER_PROXY = mock(EasyServiceProxy.class);
+
+        EasyFeatureManager MOCK_MANAGER = mock(EasyFeatureManager.class);
+        when(MOCK_MANAGER.contains(any())).thenReturn(true);
+        when(MOCK_MANAGER.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        when(MOCK_MANAGER.create(OtherService.class, MOCK_ROOT)).thenReturn(OTHER_PROXY);
+        when(MOCK_MANAGER.scopeOf(MockService.class)).thenReturn(EasyServiceScope.COMPONENT);
+        when(MOCK_MANAGER.scopeOf(OtherService.class)).thenReturn(EasyServiceScope.TRANSIENT);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost host = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        EasyComponentClient target = new EasyComponentClient(new Object(), host);
+        EasyComponentClient other = new EasyComponentClient(new Object(), host);
+        target.require(MockService.class, mock(BiConsumer.class));
+        target.require(MockService.class, mock(BiConsumer.class));
+        other.require(MockService.class, mock(BiConsumer.class));
+        target.require(OtherService.class, mock(BiConsumer.class));
+        target.require(OtherService.class, mock(BiConsumer.class));
+        // ------------------------------------------------ TEST END
+
+        // 服务代理不经过宿主
+        verify(MOCK_MANAGER, times(2)).create(MockService.class, MOCK_ROOT);
+        verify(MOCK_MANAGER, times(2)).create(OtherService.class, MOCK_ROOT);
+        verify(MOCK_PROXY, never()).startup();
+
+        // TEST START ---------------------------------------------
+        target.startup();
+        // ------------------------------------------------ TEST END
+
+        verify(MOCK_PROXY, atLeast(1)).startup();
+        verify(OTHER_PROXY, atLeast(2)).startup();
+
+        when(MOCK_PROXY.isStartup()).thenReturn(true);
+        when(OTHER_PROXY.isStartup()).thenReturn(true);
+
+        // TEST START ---------------------------------------------
+        target.shutdown();
+        // ------------------------------------------------ TEST END
+
+        verify(MOCK_PROXY, times(1)).shutdown();
+        verify(OTHER_PROXY, times(2)).shutdown();
+    }
+
+    /**
+     * 以分发策略注册的消费者可以通过原始消费者注销
+     */
+    @Test
+    public void testUnregisterDispatched() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        EasyServiceProxy<MockService> MOCK_PROXY = mock(EasyServiceProxy.class);
+
+        EasyFeatureManager MOCK_MANAGER = mock(EasyFeatureManager.class);
+        when(MOCK_MANAGER.contains(any())).thenReturn(true);
+        when(MOCK_MANAGER.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+
+        List<Runnable> MOCK_QUEUE = new ArrayList<>();
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost host = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        EasyComponentClient target = new EasyComponentClient(new Object(), host);
+        target.startup();
+        target.require(MockService.class, EasyDispatcher.executor(MOCK_QUEUE::add), MOCK_CONSUMER);
+        target.unregister(MOCK_CONSUMER);
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(MOCK_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        assertTrue(MOCK_QUEUE.isEmpty());
+        verifyNoInteractions(MOCK_CONSUMER);
+    }
+
+    /**
+     * requireAsync 的临时服务在结果完成后立即关闭
+     */
+    @Test
+    public void testRequireAsyncTransient() throws Exception {
+        Object MOCK_ROOT = new Object();
+        OtherService MOCK_SERVICE = new OtherService();
+        EasyServiceProxy<OtherService> MOCK_PROXY = mock(EasyServiceProxy.class);
+        when(MOCK_PROXY.isStartup()).thenReturn(true);
+        when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyFeatureManager MOCK_MANAGER = mock(EasyFeatureManager.class);
+        when(MOCK_MANAGER.contains(any())).thenReturn(true);
+        when(MOCK_MANAGER.create(OtherService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        when(MOCK_MANAGER.scopeOf(OtherService.class)).thenReturn(EasyServiceScope.TRANSIENT);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost host = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        EasyComponentClient target = new EasyComponentClient(new Object(), host);
+        target.startup();
+        CompletableFuture<OtherService> future = target.requireAsync(OtherService.class);
+        // ------------------------------------------------ TEST END
+
+        assertSame(MOCK_SERVICE, future.get(1, TimeUnit.SECONDS));
+        verify(MOCK_PROXY, times(1)).shutdown();
+
+        // TEST START ---------------------------------------------
+        target.shutdown();
+        // ------------------------------------------------ TEST END
+
+        verify(MOCK_PROXY, times(1)).shutdown();
+    }
+
+    /**
+     * 客户端的消费者在宿主锁外执行
+     */
+    @Test
+    public void testDeliverOutsideLock() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        EasyServiceProxy<MockService> MOCK_PROXY = mock(EasyServiceProxy.class);
+
+        EasyFeatureManager MOCK_MANAGER = mock(EasyFeatureManager.class);
+        when(MOCK_MANAGER.contains(any())).thenReturn(true);
+        when(MOCK_MANAGER.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+
+        List<Boolean> MOCK_LOCKED = new ArrayList<>();
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost host = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        EasyComponentClient target = new EasyComponentClient(new Object(), host);
+        target.startup();
+        target.require(MockService.class, (service, serviceClass) -> MOCK_LOCKED.add(Thread.holdsLock(host)));
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(MOCK_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        captor.getValue().accept(null, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        assertEquals(2, MOCK_LOCKED.size());
+        assertFalse(MOCK_LOCKED.contains(true));
+    }
+
+    class MockService {}
+
+    class OtherService {}
+
+}
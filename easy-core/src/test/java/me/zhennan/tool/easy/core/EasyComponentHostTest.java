@@ -0,0 +1,1158 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import me.zhennan.tool.easy.EasyDispatcher;
+import me.zhennan.tool.easy.EasyMetrics;
+import me.zhennan.tool.easy.EasyServicePriority;
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+import me.zhennan.tool.easy.EasyServices;
+import me.zhennan.tool.easy.tool.LocalEasyServiceProxy;
+
+public class EasyComponentHostTest {
+
+    /**
+     * EasyComponentHost的实例 依赖根作用域的所有者 (例如 APK 的 ApplicationContext) 和 一个 EasyFeatureManager
+     */
+    @Test
+    public void testInstantiation() {
+        Object MOCK_ROOT = new Object();
+        EasyFeatureManager MOCK_MANAGER = Mockito.mock(EasyFeatureManager.class);
+
+
+        // TEST START ---------------------------------------------
+
+        try {
+            // 不传根所有者报错
+            new EasyComponentHost(null, MOCK_MANAGER);
+            fail("创建 EasyComponentHost 的时候应该报错. 因为传入了空的根所有者");
+        } catch (IllegalArgumentException ignored) { }
+
+        try {
+            // 传入空的 EasyFeatureManager 报错
+            new EasyComponentHost(MOCK_ROOT, null);
+            fail("创建 EasyComponentHost 的时候应该报错. 因为传入了空的 EasyFeatureManager 参数");
+        } catch (IllegalArgumentException ignored) {}
+
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        assertSame(MOCK_ROOT, target.root());
+
+        // ------------------------------------------------ TEST END
+    }
+
+    /**
+     * EasyComponentHost 会维护好自己的生命周期
+     */
+    @Test
+    public void testLifeCycle() {
+        Object MOCK_ROOT = new Object();
+        EasyFeatureManager MOCK_FEATURE_MANAGER = mock(EasyFeatureManager.class);
+
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_FEATURE_MANAGER);
+        assertFalse(target.isStartup());
+        assertFalse(target.isShutdown());
+
+        target.startup();
+        assertTrue(target.isStartup());
+        assertFalse(target.isShutdown());
+
+        target.shutdown();
+        assertFalse(target.isStartup());
+        assertTrue(target.isShutdown());
+
+
+        // 再次启动会失败. 因为之前已经 shutdown 过了
+        target.startup();
+        assertFalse(target.isStartup());
+        assertTrue(target.isShutdown());
+    }
+
+    /**
+     * EasyComponentHost 会同步所有 EasyServiceProxy 实例的生命周期
+     */
+    @Test
+    public void testRequireWithLifecycle() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+        target.shutdown();
+        // ------------------------------------------------ TEST END
+
+        // 如果没有需要处理的依赖. 那么 EasyFeatureManager 的方法不会被调用
+        Mockito.verify(MOCK_MANAGER, Mockito.never()).contains(Mockito.any());
+        Mockito.verify(MOCK_MANAGER, Mockito.never()).create(Mockito.any(), Mockito.any());
+        Mockito.verify(MOCK_MANAGER, Mockito.never()).use(Mockito.any());
+
+        // TEST START ---------------------------------------------
+        target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.require(MockService.class, (obj, clazz) -> {
+            // 注册依赖
+        });
+
+        target.startup(); // 启动 host
+        // ------------------------------------------------ TEST END
+
+        // 被注册的 MOCK_PROXY 的生命周期与 EasyComponentHost 同步
+        Mockito.verify(MOCK_PROXY, Mockito.atLeast(1)).isStartup();
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).startup();
+
+
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true); // 已经 startup 过了
+
+        // TEST START ---------------------------------------------
+        target.shutdown(); // 关闭 host
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.atLeast(1)).isShutdown();
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).shutdown();
+    }
+
+    @Test
+    public void testRegisterUnregister()  {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = Mockito.mock(BiConsumer.class);
+
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+
+        target.register(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.never()).startup();
+        Mockito.verify(MOCK_PROXY, Mockito.never()).provide();
+
+
+//        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+        // TEST START ---------------------------------------------
+        target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+        target.register(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).startup();
+//        Mockito.verify(MOCK_PROXY, Mockito.times(1)).provide();
+
+        Mockito.reset(MOCK_PROXY, MOCK_CONSUMER);
+        // TEST START ---------------------------------------------
+        target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.unregister(MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+//        Mockito.verify(MOCK_PROXY, Mockito.times(1)).provide();
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).asyncProvide(Mockito.any(BiConsumer.class));
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).startup();
+//        Mockito.verify(MOCK_PROXY, Mockito.times(1)).shutdown();
+
+
+    }
+
+    /**
+     * 只有当服务的最后一个消费者被注销时, 才会关闭服务代理
+     */
+    @Test
+    public void testUnregisterLastConsumer() {
+        Object MOCK_ROOT = new Object();
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = Mockito.mock(BiConsumer.class);
+        BiConsumer<MockService, Class<MockService>> OTHER_CONSUMER = Mockito.mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.register(MockService.class, MOCK_CONSUMER); // 重复注册不会重复记录
+        target.register(MockService.class, OTHER_CONSUMER);
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+
+        target.unregister(MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.never()).shutdown();
+
+        // TEST START ---------------------------------------------
+        target.unregister(MOCK_CONSUMER); // 已经注销的消费者
+        target.unregister(OTHER_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).shutdown();
+        Mockito.verify(MOCK_MANAGER, Mockito.times(1)).create(MockService.class, MOCK_ROOT);
+    }
+
+    /**
+     * 保活期内注销最后一个消费者不会关闭服务代理, 重新注册时直接复用
+     */
+    @Test
+    public void testKeepAlive() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+        Mockito.when(MOCK_MANAGER.keepAliveMillis(MockService.class)).thenReturn(60 * 1000L);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = Mockito.mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+        target.register(MockService.class, MOCK_CONSUMER);
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+        target.unregister(MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.never()).shutdown();
+
+        // TEST START ---------------------------------------------
+        target.register(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_MANAGER, Mockito.times(1)).create(MockService.class, MOCK_ROOT);
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(Mockito.same(MOCK_SERVICE), Mockito.same(MockService.class));
+
+        // TEST START ---------------------------------------------
+        target.shutdown();
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).shutdown();
+    }
+
+    @Test
+    public void testRequire() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = Mockito.mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+
+        target.require(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        // 并没有被调用过
+        Mockito.verify(MOCK_CONSUMER, Mockito.never()).accept(Mockito.same(MOCK_SERVICE), Mockito.same(MockService.class));
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true); // PROXY 启动状态
+
+
+        // TEST START ---------------------------------------------
+        target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+
+        target.require(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(Mockito.same(MOCK_SERVICE), Mockito.same(MockService.class));
+    }
+
+    /**
+     * requireAsync 在服务可用时完成, 超时后失败
+     */
+    @Test
+    public void testRequireAsync() throws Exception {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+        CompletableFuture<MockService> future = target.requireAsync(MockService.class, 50, TimeUnit.MILLISECONDS);
+        // ------------------------------------------------ TEST END
+
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("服务不可用时应该超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // TEST START ---------------------------------------------
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+        future = target.requireAsync(MockService.class, 50, TimeUnit.MILLISECONDS);
+        // ------------------------------------------------ TEST END
+
+        assertTrue(future.isDone());
+        assertSame(MOCK_SERVICE, future.get());
+        assertSame(MOCK_SERVICE, target.await(MockService.class, 50, TimeUnit.MILLISECONDS));
+
+        // 未注册的服务直接失败
+        Mockito.when(MOCK_MANAGER.contains(OtherService.class)).thenReturn(false);
+        assertTrue(target.requireAsync(OtherService.class).isCompletedExceptionally());
+    }
+
+    /**
+     * requireAsync 的消费者在 future 完成 (可用 / 超时 / 取消) 后注销
+     */
+    @Test
+    public void testRequireAsyncUnregister() throws Exception {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        EasyMetrics MOCK_METRICS = mock(EasyMetrics.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.metrics(MOCK_METRICS);
+        target.startup();
+
+        // 超时
+        CompletableFuture<MockService> future = target.requireAsync(MockService.class, 50, TimeUnit.MILLISECONDS);
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("服务不可用时应该超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // 取消
+        future = target.requireAsync(MockService.class, 1, TimeUnit.SECONDS);
+        future.cancel(false);
+
+        // 可用
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+        future = target.requireAsync(MockService.class, 1, TimeUnit.SECONDS);
+        // ------------------------------------------------ TEST END
+
+        assertSame(MOCK_SERVICE, future.get());
+        Mockito.verify(MOCK_METRICS, Mockito.times(3)).onConsumerCount(MockService.class, 1);
+        Mockito.verify(MOCK_METRICS, Mockito.times(3)).onConsumerCount(MockService.class, 0);
+    }
+
+    /**
+     * 批量获取服务时, 所有服务代理同时启动, 全部可用后只回调一次
+     */
+    @Test
+    public void testRequireAll() throws Exception {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        OtherService OTHER_SERVICE = Mockito.mock(OtherService.class);
+
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        EasyServiceProxy<OtherService> OTHER_PROXY = (EasyServiceProxy<OtherService>) Mockito.mock(EasyServiceProxy.class);
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyFeatureManager MOCK_MANAGER = Mockito.mock(EasyFeatureManager.class);
+        Mockito.when(MOCK_MANAGER.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        Mockito.when(MOCK_MANAGER.create(OtherService.class, MOCK_ROOT)).thenReturn(OTHER_PROXY);
+        Mockito.when(MOCK_MANAGER.contains(Mockito.any())).thenReturn(true);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+
+        CompletableFuture<EasyServices> future = target.requireAllAsync(
+                new HashSet<>(Arrays.asList(MockService.class, OtherService.class)), 1, TimeUnit.SECONDS);
+        // ------------------------------------------------ TEST END
+
+        // 未启动的服务代理已经启动. 但只有一个服务可用
+        Mockito.verify(MOCK_PROXY, Mockito.never()).startup();
+        Mockito.verify(OTHER_PROXY, Mockito.times(1)).startup();
+        assertFalse(future.isDone());
+
+        // 模拟 OTHER_PROXY 连接成功
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        Mockito.verify(OTHER_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(OTHER_SERVICE, OtherService.class);
+
+        assertTrue(future.isDone());
+        EasyServices services = future.get();
+        assertSame(MOCK_SERVICE, services.get(MockService.class));
+        assertSame(OTHER_SERVICE, services.get(OtherService.class));
+    }
+
+    /**
+     * 批量消费者回调之后, 或者超时之后, 从所有服务注销
+     */
+    @Test
+    public void testRequireAllUnregister() throws Exception {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        OtherService OTHER_SERVICE = Mockito.mock(OtherService.class);
+
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        EasyServiceProxy<OtherService> OTHER_PROXY = (EasyServiceProxy<OtherService>) Mockito.mock(EasyServiceProxy.class);
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+        Mockito.when(OTHER_PROXY.isStartup()).thenReturn(true);
+
+        EasyFeatureManager MOCK_MANAGER = Mockito.mock(EasyFeatureManager.class);
+        Mockito.when(MOCK_MANAGER.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        Mockito.when(MOCK_MANAGER.create(OtherService.class, MOCK_ROOT)).thenReturn(OTHER_PROXY);
+        Mockito.when(MOCK_MANAGER.contains(Mockito.any())).thenReturn(true);
+
+        EasyMetrics MOCK_METRICS = mock(EasyMetrics.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.metrics(MOCK_METRICS);
+        target.startup();
+
+        // OtherService 一直不可用, 超时
+        CompletableFuture<EasyServices> future = target.requireAllAsync(
+                new HashSet<>(Arrays.asList(MockService.class, OtherService.class)), 50, TimeUnit.MILLISECONDS);
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("有服务不可用时应该超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // 全部可用
+        Mockito.when(OTHER_PROXY.provide()).thenReturn(OTHER_SERVICE);
+        future = target.requireAllAsync(
+                new HashSet<>(Arrays.asList(MockService.class, OtherService.class)), 1, TimeUnit.SECONDS);
+        // ------------------------------------------------ TEST END
+
+        assertSame(OTHER_SERVICE, future.get().get(OtherService.class));
+        for (Class<?> serviceClass : Arrays.asList(MockService.class, OtherService.class)) {
+            Mockito.verify(MOCK_METRICS, Mockito.times(2)).onConsumerCount(serviceClass, 1);
+            Mockito.verify(MOCK_METRICS, Mockito.times(2)).onConsumerCount(serviceClass, 0);
+        }
+    }
+
+    /**
+     * 投递分发的消费者不阻塞通知线程, 并且投递执行之前的多次通知只回调最新状态
+     */
+    @Test
+    public void testDispatcher() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        List<Runnable> MOCK_QUEUE = new ArrayList<>();
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        BiConsumer<MockService, Class<MockService>> INLINE_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.startup();
+        target.dispatcher(EasyDispatcher.executor(MOCK_QUEUE::add));
+        target.require(MockService.class, MOCK_CONSUMER);
+        target.require(MockService.class, EasyDispatcher.INLINE, INLINE_CONSUMER);
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        Mockito.verify(MOCK_PROXY).asyncProvide(captor.capture());
+
+        // 服务抖动: 连接 -> 断开 -> 连接
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        captor.getValue().accept(null, MockService.class);
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        // 直接回调的消费者收到全部通知. 投递的消费者还没有被回调
+        Mockito.verify(INLINE_CONSUMER, Mockito.times(3)).accept(Mockito.any(), Mockito.eq(MockService.class));
+        Mockito.verifyNoInteractions(MOCK_CONSUMER);
+        assertEquals(1, MOCK_QUEUE.size());
+
+        MOCK_QUEUE.remove(0).run();
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(MOCK_SERVICE, MockService.class);
+
+        // 状态没有变化时不再回调
+        captor.getValue().accept(null, MockService.class);
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        MOCK_QUEUE.remove(0).run();
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(Mockito.any(), Mockito.any());
+        assertTrue(MOCK_QUEUE.isEmpty());
+    }
+
+    /**
+     * 同一个消费者以同一个分发策略重复 require 时只注册一次
+     */
+    @Test
+    public void testDispatchedDedupe() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        EasyMetrics MOCK_METRICS = mock(EasyMetrics.class);
+        List<Runnable> MOCK_QUEUE = new ArrayList<>();
+        EasyDispatcher MOCK_DISPATCHER = EasyDispatcher.executor(MOCK_QUEUE::add);
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.metrics(MOCK_METRICS);
+        target.startup();
+        target.dispatcher(MOCK_DISPATCHER);
+        target.require(MockService.class, MOCK_CONSUMER);
+        target.require(MockService.class, MOCK_CONSUMER);
+        target.require(MockService.class, MOCK_DISPATCHER, MOCK_CONSUMER);
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        Mockito.verify(MOCK_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_METRICS, Mockito.times(3)).onConsumerCount(MockService.class, 1);
+        Mockito.verify(MOCK_METRICS, Mockito.never()).onConsumerCount(MockService.class, 2);
+
+        assertEquals(1, MOCK_QUEUE.size());
+        MOCK_QUEUE.remove(0).run();
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(MOCK_SERVICE, MockService.class);
+    }
+
+    /**
+     * 以分发策略注册的消费者可以通过原始消费者注销. 相同执行器的分发策略视为同一个
+     */
+    @Test
+    public void testUnregisterDispatched() {
+        Object MOCK_ROOT = new Object();
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        EasyMetrics MOCK_METRICS = mock(EasyMetrics.class);
+        List<Runnable> MOCK_QUEUE = new ArrayList<>();
+        Executor MOCK_EXECUTOR = MOCK_QUEUE::add;
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.metrics(MOCK_METRICS);
+        target.startup();
+        target.require(MockService.class, EasyDispatcher.executor(MOCK_EXECUTOR), MOCK_CONSUMER);
+        target.require(MockService.class, EasyDispatcher.executor(MOCK_EXECUTOR), MOCK_CONSUMER);
+        target.unregister(MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        assertEquals(EasyDispatcher.mainThread(), EasyDispatcher.mainThread());
+        Mockito.verify(MOCK_METRICS, Mockito.never()).onConsumerCount(MockService.class, 2);
+        Mockito.verify(MOCK_METRICS).onConsumerCount(MockService.class, 0);
+        Mockito.verify(MOCK_PROXY).shutdown();
+    }
+
+    /**
+     * 消费者以及接在 requireAsync 结果上的代码在宿主锁外执行
+     */
+    @Test
+    public void testDeliverOutsideLock() throws Exception {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        List<Boolean> MOCK_LOCKED = new ArrayList<>();
+
+        // TEST START ---------------------------------------------
+        target.startup();
+        target.require(MockService.class, (service, serviceClass) -> MOCK_LOCKED.add(Thread.holdsLock(target)));
+        CompletableFuture<Boolean> future = target.requireAsync(MockService.class)
+                .thenApply(service -> Thread.holdsLock(target));
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        Mockito.verify(MOCK_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        assertEquals(Arrays.asList(false), MOCK_LOCKED);
+        assertFalse(future.get(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 消费者数量变化以及服务第一次可用时上报指标
+     */
+    @Test
+    public void testMetrics() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = Mockito.mock(MockService.class);
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+
+        EasyFeatureManager MOCK_MANAGER = mockManager(MOCK_ROOT, MOCK_PROXY);
+
+        EasyMetrics MOCK_METRICS = mock(EasyMetrics.class);
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost target = new EasyComponentHost(MOCK_ROOT, MOCK_MANAGER);
+        target.metrics(MOCK_METRICS);
+        target.startup();
+        target.require(MockService.class, MOCK_CONSUMER);
+
+        ArgumentCaptor<BiConsumer> captor = ArgumentCaptor.forClass(BiConsumer.class);
+        Mockito.verify(MOCK_PROXY).asyncProvide(captor.capture());
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+        captor.getValue().accept(null, MockService.class);
+        captor.getValue().accept(MOCK_SERVICE, MockService.class);
+
+        target.unregister(MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_METRICS).onConsumerCount(MockService.class, 1);
+        Mockito.verify(MOCK_METRICS).onConsumerCount(MockService.class, 0);
+        // 只有第一次可用时上报
+        Mockito.verify(MOCK_METRICS, Mockito.times(1)).onFirstService(Mockito.eq(MockService.class), Mockito.anyLong());
+    }
+
+    /**
+     * 进程单例的服务代理只创建一次. 没有消费者以及宿主关闭之后都不关闭
+     */
+    @Test
+    public void testSingleton() {
+        Object MOCK_ROOT = new Object();
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(MockService.class)).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        Mockito.when(MOCK_FEATURE.scopeOf(MockService.class)).thenReturn(EasyServiceScope.SINGLETON);
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.unregister(MOCK_CONSUMER);
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.shutdown();
+
+        target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.shutdown();
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_FEATURE, Mockito.times(1)).create(MockService.class, MOCK_ROOT);
+        Mockito.verify(MOCK_PROXY, Mockito.never()).shutdown();
+    }
+
+    /**
+     * 服务在依赖全部可用之后才启动, 依赖断开时消费者收到 null. 服务释放时依赖一并释放
+     */
+    @Test
+    public void testDependencies() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        OtherService OTHER_SERVICE = new OtherService();
+        ThirdService THIRD_SERVICE = new ThirdService();
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        EasyServiceProxy<OtherService> OTHER_PROXY = (EasyServiceProxy<OtherService>) Mockito.mock(EasyServiceProxy.class);
+        EasyServiceProxy<ThirdService> THIRD_PROXY = (EasyServiceProxy<ThirdService>) Mockito.mock(EasyServiceProxy.class);
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        Mockito.when(MOCK_FEATURE.create(OtherService.class, MOCK_ROOT)).thenReturn(OTHER_PROXY);
+        Mockito.when(MOCK_FEATURE.create(ThirdService.class, MOCK_ROOT)).thenReturn(THIRD_PROXY);
+        Mockito.when(MOCK_FEATURE.dependenciesOf(MockService.class))
+                .thenReturn(new HashSet<>(Arrays.asList(OtherService.class, ThirdService.class)));
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        ArgumentCaptor<BiConsumer> MOCK_CALLBACK = ArgumentCaptor.forClass(BiConsumer.class);
+        ArgumentCaptor<BiConsumer> OTHER_CALLBACK = ArgumentCaptor.forClass(BiConsumer.class);
+        ArgumentCaptor<BiConsumer> THIRD_CALLBACK = ArgumentCaptor.forClass(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        // 互不依赖的服务同时启动
+        Mockito.verify(OTHER_PROXY, Mockito.times(1)).startup();
+        Mockito.verify(THIRD_PROXY, Mockito.times(1)).startup();
+        Mockito.verify(MOCK_PROXY, Mockito.never()).startup();
+        Mockito.verify(MOCK_PROXY).asyncProvide(MOCK_CALLBACK.capture());
+        Mockito.verify(OTHER_PROXY).asyncProvide(OTHER_CALLBACK.capture());
+        Mockito.verify(THIRD_PROXY).asyncProvide(THIRD_CALLBACK.capture());
+
+        // TEST START ---------------------------------------------
+        Mockito.when(OTHER_PROXY.isStartup()).thenReturn(true);
+        Mockito.when(OTHER_PROXY.provide()).thenReturn(OTHER_SERVICE);
+        OTHER_CALLBACK.getValue().accept(OTHER_SERVICE, OtherService.class);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.never()).startup();
+
+        // TEST START ---------------------------------------------
+        Mockito.when(THIRD_PROXY.isStartup()).thenReturn(true);
+        Mockito.when(THIRD_PROXY.provide()).thenReturn(THIRD_SERVICE);
+        THIRD_CALLBACK.getValue().accept(THIRD_SERVICE, ThirdService.class);
+        // ------------------------------------------------ TEST END
+
+        // 依赖全部可用, 服务才启动
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).startup();
+        assertSame(OTHER_SERVICE, target.peek(OtherService.class));
+        assertNull(target.peek(MockService.class));
+
+        // TEST START ---------------------------------------------
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+        Mockito.when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+        MOCK_CALLBACK.getValue().accept(MOCK_SERVICE, MockService.class);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(MOCK_SERVICE, MockService.class);
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+
+        // TEST START ---------------------------------------------
+        // 依赖断开, 服务不再完整
+        Mockito.when(OTHER_PROXY.provide()).thenReturn(null);
+        OTHER_CALLBACK.getValue().accept(null, OtherService.class);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(null, MockService.class);
+        assertNull(target.peek(MockService.class));
+
+        // TEST START ---------------------------------------------
+        // 依赖恢复, 服务重新分发
+        Mockito.when(OTHER_PROXY.provide()).thenReturn(OTHER_SERVICE);
+        OTHER_CALLBACK.getValue().accept(OTHER_SERVICE, OtherService.class);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(2)).accept(MOCK_SERVICE, MockService.class);
+
+        // TEST START ---------------------------------------------
+        target.unregister(MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).shutdown();
+        Mockito.verify(OTHER_PROXY, Mockito.times(1)).shutdown();
+        Mockito.verify(THIRD_PROXY, Mockito.times(1)).shutdown();
+    }
+
+    /**
+     * 依赖中有环, 或者依赖不在 feature 列表中时报错
+     */
+    @Test
+    public void testDependencyCycle() {
+        Object MOCK_ROOT = new Object();
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(MockService.class)).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.contains(OtherService.class)).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.dependenciesOf(MockService.class))
+                .thenReturn(new HashSet<>(Arrays.asList(OtherService.class)));
+        Mockito.when(MOCK_FEATURE.dependenciesOf(OtherService.class))
+                .thenReturn(new HashSet<>(Arrays.asList(ThirdService.class)));
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+
+        try {
+            // 依赖不在 feature 列表中
+            target.register(MockService.class, MOCK_CONSUMER);
+            fail("依赖的服务不在 feature 列表中. 应该报错");
+        } catch (IllegalArgumentException ignored) { }
+
+        EasyProvider<Object> CYCLE_FEATURE = mock(EasyProvider.class);
+        Mockito.when(CYCLE_FEATURE.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(CYCLE_FEATURE.dependenciesOf(MockService.class))
+                .thenReturn(new HashSet<>(Arrays.asList(OtherService.class)));
+        Mockito.when(CYCLE_FEATURE.dependenciesOf(OtherService.class))
+                .thenReturn(new HashSet<>(Arrays.asList(ThirdService.class)));
+        Mockito.when(CYCLE_FEATURE.dependenciesOf(ThirdService.class))
+                .thenReturn(new HashSet<>(Arrays.asList(MockService.class)));
+
+        manager = new EasyFeatureManager<>();
+        manager.use(CYCLE_FEATURE);
+        target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+
+        try {
+            // MockService -> OtherService -> ThirdService -> MockService
+            target.register(MockService.class, MOCK_CONSUMER);
+            fail("依赖中有环. 应该报错");
+        } catch (IllegalStateException ignored) { }
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_FEATURE, Mockito.never()).create(Mockito.any(), Mockito.any());
+        Mockito.verify(CYCLE_FEATURE, Mockito.never()).create(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * 记录 register 的服务. 预热提前启动服务代理, 到期后没有被使用的服务关闭, 被使用的服务保留
+     */
+    @Test
+    public void testPrewarm() {
+        Object MOCK_ROOT = new Object();
+        EasyServiceProxy<MockService> MOCK_PROXY = mockProxy();
+        EasyServiceProxy<OtherService> OTHER_PROXY = (EasyServiceProxy<OtherService>) Mockito.mock(EasyServiceProxy.class);
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(MockService.class)).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.contains(OtherService.class)).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT)).thenReturn(MOCK_PROXY);
+        Mockito.when(MOCK_FEATURE.create(OtherService.class, MOCK_ROOT)).thenReturn(OTHER_PROXY);
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        EasyStartupProfile MOCK_PROFILE = new EasyStartupProfile();
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.record(MOCK_PROFILE);
+        target.prewarm(Arrays.asList(OtherService.class, MockService.class, ThirdService.class), 100);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_PROXY, Mockito.times(1)).startup();
+        Mockito.verify(OTHER_PROXY, Mockito.times(1)).startup();
+        assertTrue("预热的服务不应该被记录", MOCK_PROFILE.isEmpty());
+
+        // TEST START ---------------------------------------------
+        Mockito.when(MOCK_PROXY.isStartup()).thenReturn(true);
+        Mockito.when(OTHER_PROXY.isStartup()).thenReturn(true);
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.record(null);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_FEATURE, Mockito.times(1)).create(MockService.class, MOCK_ROOT);
+        assertEquals(Arrays.asList(MockService.class), MOCK_PROFILE.services());
+
+        // 到期后没有被使用的服务关闭
+        Mockito.verify(OTHER_PROXY, Mockito.timeout(2000)).shutdown();
+        Mockito.verify(MOCK_PROXY, Mockito.never()).shutdown();
+    }
+
+    /**
+     * 进程内服务在 register 时同步解决
+     */
+    @Test
+    public void testLocalProxy() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(MockService.class)).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT))
+                .thenReturn(new LocalEasyServiceProxy<>(MockService.class, () -> MOCK_SERVICE));
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(MOCK_SERVICE, MockService.class);
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+    }
+
+    /**
+     * 内存紧张时解绑不高于该优先级的服务, 消费者收到 null. 再次解决依赖时重新绑定
+     */
+    @Test
+    public void testTrim() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        OtherService OTHER_SERVICE = new OtherService();
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(MockService.class, () -> MOCK_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(OtherService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(OtherService.class, () -> OTHER_SERVICE));
+        Mockito.when(MOCK_FEATURE.priorityOf(MockService.class)).thenReturn(EasyServicePriority.LOW);
+        Mockito.when(MOCK_FEATURE.priorityOf(OtherService.class)).thenReturn(EasyServicePriority.HIGH);
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        BiConsumer<OtherService, Class<OtherService>> OTHER_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.register(OtherService.class, OTHER_CONSUMER);
+        target.trim(EasyServicePriority.NORMAL);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(null, MockService.class);
+        Mockito.verify(OTHER_CONSUMER, Mockito.never()).accept(null, OtherService.class);
+        assertNull(target.peek(MockService.class));
+        assertSame(OTHER_SERVICE, target.peek(OtherService.class));
+
+        // TEST START ---------------------------------------------
+        target.resolve(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_FEATURE, Mockito.times(2)).create(MockService.class, MOCK_ROOT);
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(2)).accept(MOCK_SERVICE, MockService.class);
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+    }
+
+    /**
+     * 超过绑定数量上限时解绑最近最少使用的服务. CRITICAL 的服务不会被解绑
+     */
+    @Test
+    public void testMaxBound() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        OtherService OTHER_SERVICE = new OtherService();
+        ThirdService THIRD_SERVICE = new ThirdService();
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(MockService.class, () -> MOCK_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(OtherService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(OtherService.class, () -> OTHER_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(ThirdService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(ThirdService.class, () -> THIRD_SERVICE));
+        Mockito.when(MOCK_FEATURE.priorityOf(Mockito.any())).thenReturn(EasyServicePriority.NORMAL);
+        Mockito.when(MOCK_FEATURE.priorityOf(ThirdService.class)).thenReturn(EasyServicePriority.CRITICAL);
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        BiConsumer<OtherService, Class<OtherService>> OTHER_CONSUMER = mock(BiConsumer.class);
+        BiConsumer<ThirdService, Class<ThirdService>> THIRD_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.maxBound(2);
+        target.startup();
+        target.register(ThirdService.class, THIRD_CONSUMER);
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.register(OtherService.class, OTHER_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(null, MockService.class);
+        assertNull(target.peek(MockService.class));
+        assertSame(OTHER_SERVICE, target.peek(OtherService.class));
+        assertSame(THIRD_SERVICE, target.peek(ThirdService.class));
+
+        // TEST START ---------------------------------------------
+        target.resolve(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(OTHER_CONSUMER, Mockito.times(1)).accept(null, OtherService.class);
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+        assertSame(THIRD_SERVICE, target.peek(ThirdService.class));
+        Mockito.verify(THIRD_CONSUMER, Mockito.never()).accept(null, ThirdService.class);
+    }
+
+    /**
+     * 依赖链上的服务: 依赖方仍然绑定时, 它 (直接或间接) 的依赖不会因为内存紧张被解绑
+     */
+    @Test
+    public void testTrimDependencies() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        OtherService OTHER_SERVICE = new OtherService();
+        ThirdService THIRD_SERVICE = new ThirdService();
+
+        // MockService (HIGH) -> OtherService (LOW) -> ThirdService (LOW)
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(MockService.class, () -> MOCK_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(OtherService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(OtherService.class, () -> OTHER_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(ThirdService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(ThirdService.class, () -> THIRD_SERVICE));
+        Mockito.when(MOCK_FEATURE.dependenciesOf(MockService.class)).thenReturn(new HashSet<>(Arrays.asList(OtherService.class)));
+        Mockito.when(MOCK_FEATURE.dependenciesOf(OtherService.class)).thenReturn(new HashSet<>(Arrays.asList(ThirdService.class)));
+        Mockito.when(MOCK_FEATURE.priorityOf(Mockito.any())).thenReturn(EasyServicePriority.LOW);
+        Mockito.when(MOCK_FEATURE.priorityOf(MockService.class)).thenReturn(EasyServicePriority.HIGH);
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        BiConsumer<ThirdService, Class<ThirdService>> THIRD_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.register(ThirdService.class, THIRD_CONSUMER);
+        target.trim(EasyServicePriority.LOW);
+        // ------------------------------------------------ TEST END
+
+        Mockito.verify(MOCK_CONSUMER, Mockito.never()).accept(null, MockService.class);
+        Mockito.verify(THIRD_CONSUMER, Mockito.never()).accept(null, ThirdService.class);
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+        assertSame(OTHER_SERVICE, target.peek(OtherService.class));
+        assertSame(THIRD_SERVICE, target.peek(ThirdService.class));
+
+        // TEST START ---------------------------------------------
+        target.trim(EasyServicePriority.HIGH);
+        // ------------------------------------------------ TEST END
+
+        // 依赖方解绑之后, 依赖也跟着解绑 (即使依赖还有自己的消费者)
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(null, MockService.class);
+        Mockito.verify(THIRD_CONSUMER, Mockito.times(1)).accept(null, ThirdService.class);
+        assertNull(target.peek(MockService.class));
+        assertNull(target.peek(ThirdService.class));
+
+        // TEST START ---------------------------------------------
+        target.resolve(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        // 整条依赖链重新绑定
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+        assertSame(OTHER_SERVICE, target.peek(OtherService.class));
+        assertSame(THIRD_SERVICE, target.peek(ThirdService.class));
+    }
+
+    /**
+     * 超过绑定数量上限时, 依赖链上被依赖的服务不会被解绑. 只能先解绑依赖方
+     */
+    @Test
+    public void testMaxBoundDependencies() {
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService();
+        OtherService OTHER_SERVICE = new OtherService();
+        ThirdService THIRD_SERVICE = new ThirdService();
+        FourthService FOURTH_SERVICE = new FourthService();
+
+        // MockService -> OtherService -> ThirdService
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        Mockito.when(MOCK_FEATURE.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(MOCK_FEATURE.create(MockService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(MockService.class, () -> MOCK_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(OtherService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(OtherService.class, () -> OTHER_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(ThirdService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(ThirdService.class, () -> THIRD_SERVICE));
+        Mockito.when(MOCK_FEATURE.create(FourthService.class, MOCK_ROOT))
+                .thenAnswer(invocation -> new LocalEasyServiceProxy<>(FourthService.class, () -> FOURTH_SERVICE));
+        Mockito.when(MOCK_FEATURE.dependenciesOf(MockService.class)).thenReturn(new HashSet<>(Arrays.asList(OtherService.class)));
+        Mockito.when(MOCK_FEATURE.dependenciesOf(OtherService.class)).thenReturn(new HashSet<>(Arrays.asList(ThirdService.class)));
+        Mockito.when(MOCK_FEATURE.priorityOf(Mockito.any())).thenReturn(EasyServicePriority.NORMAL);
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(MOCK_FEATURE);
+
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = mock(BiConsumer.class);
+        BiConsumer<FourthService, Class<FourthService>> FOURTH_CONSUMER = mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        EasyComponentHost<Object> target = new EasyComponentHost<>(MOCK_ROOT, manager);
+        target.maxBound(3);
+        target.startup();
+        target.register(MockService.class, MOCK_CONSUMER);
+        target.register(FourthService.class, FOURTH_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        // 最近最少使用的是 ThirdService, 但它仍被依赖. 解绑依赖方 MockService, 整条依赖链随之释放
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(null, MockService.class);
+        assertNull(target.peek(MockService.class));
+        assertNull(target.peek(OtherService.class));
+        assertNull(target.peek(ThirdService.class));
+        assertSame(FOURTH_SERVICE, target.peek(FourthService.class));
+
+        // TEST START ---------------------------------------------
+        target.resolve(MockService.class, MOCK_CONSUMER);
+        // ------------------------------------------------ TEST END
+
+        // 依赖链重新绑定. 为它腾出位置的是 FourthService
+        assertSame(MOCK_SERVICE, target.peek(MockService.class));
+        assertSame(OTHER_SERVICE, target.peek(OtherService.class));
+        assertSame(THIRD_SERVICE, target.peek(ThirdService.class));
+        Mockito.verify(FOURTH_CONSUMER, Mockito.times(1)).accept(null, FourthService.class);
+    }
+
+    /**
+     * 模拟 MockService 的代理
+     */
+    @SuppressWarnings("unchecked")
+    private static EasyServiceProxy<MockService> mockProxy() {
+        return (EasyServiceProxy<MockService>) mock(EasyServiceProxy.class);
+    }
+
+    /**
+     * 模拟提供 MockService 的 EasyFeatureManager. 为 root 创建 MockService 时返回 proxy
+     */
+    private static EasyFeatureManager mockManager(Object root, EasyServiceProxy<MockService> proxy) {
+        EasyFeatureManager manager = mock(EasyFeatureManager.class);
+        Mockito.when(manager.create(MockService.class, root)).thenReturn(proxy);
+        Mockito.when(manager.contains(MockService.class)).thenReturn(true);
+        return manager;
+    }
+
+    class MockService { }
+
+    class OtherService { }
+
+    class ThirdService { }
+
+    class FourthService { }
+}
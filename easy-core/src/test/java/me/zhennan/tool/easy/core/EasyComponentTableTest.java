@@ -0,0 +1,106 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class EasyComponentTableTest {
+
+    /**
+     * 写入会生成新表. 旧表的内容保持不变
+     */
+    @Test
+    public void testCopyOnWrite() {
+        Object MOCK_OWNER = new Object();
+        EasyComponent MOCK_COMPONENT = mock(EasyComponent.class);
+
+        EasyComponentTable empty = EasyComponentTable.EMPTY;
+        EasyComponentTable table = empty.put(MOCK_OWNER, MOCK_COMPONENT);
+
+        assertNull(empty.get(MOCK_OWNER));
+        assertSame(MOCK_COMPONENT, table.get(MOCK_OWNER));
+        assertEquals(1, table.size());
+
+        EasyComponentTable removed = table.remove(MOCK_OWNER);
+        assertNull(removed.get(MOCK_OWNER));
+        assertSame(MOCK_COMPONENT, table.get(MOCK_OWNER));
+        assertEquals(0, removed.size());
+
+        // 删除不存在的键返回原表
+        assertSame(removed, removed.remove(MOCK_OWNER));
+    }
+
+    /**
+     * 扩容与替换
+     */
+    @Test
+    public void testManyEntries() {
+        List<Object> owners = new ArrayList<>();
+        List<EasyComponent> components = new ArrayList<>();
+
+        EasyComponentTable table = EasyComponentTable.EMPTY;
+        for (int i = 0; i < 100; i++) {
+            Object owner = new Object();
+            EasyComponent component = mock(EasyComponent.class);
+            owners.add(owner);
+            components.add(component);
+            table = table.put(owner, component);
+        }
+        assertEquals(100, table.size());
+
+        EasyComponent REPLACEMENT = mock(EasyComponent.class);
+        table = table.put(owners.get(0), REPLACEMENT);
+        assertEquals(100, table.size());
+        assertSame(REPLACEMENT, table.get(owners.get(0)));
+
+        for (int i = 1; i < 100; i++) {
+            assertSame(components.get(i), table.get(owners.get(i)));
+        }
+
+        for (int i = 0; i < 100; i += 2) {
+            table = table.remove(owners.get(i));
+        }
+        assertEquals(50, table.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0 != i % 2, null != table.get(owners.get(i)));
+        }
+    }
+
+    /**
+     * 弱引用键可以通过键本身获取和删除组件
+     */
+    @Test
+    public void testWeakKey() {
+        Object MOCK_OWNER = new Object();
+        Object MOCK_OTHER_OWNER = new Object();
+        EasyComponent MOCK_COMPONENT = mock(EasyComponent.class);
+        ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+        EasyComponentTable table = EasyComponentTable.EMPTY
+                .put(MOCK_OWNER, MOCK_COMPONENT, QUEUE)
+                .put(MOCK_OTHER_OWNER, MOCK_COMPONENT);
+        assertSame(MOCK_COMPONENT, table.get(MOCK_OWNER));
+
+        List<EasyComponentTable.Key> keys = new ArrayList<>();
+        table.forEachKey(keys::add);
+        assertEquals(2, keys.size());
+
+        for (EasyComponentTable.Key key : keys) {
+            assertEquals(key.get() == MOCK_OWNER, key.isWeak());
+            if (key.isWeak()) {
+                assertNotNull(key.description);
+                assertSame(MOCK_COMPONENT, table.get(key));
+
+                table = table.remove(key);
+                assertNull(table.get(key));
+                assertNull(table.get(MOCK_OWNER));
+            }
+        }
+        assertEquals(1, table.size());
+    }
+}
@@ -0,0 +1,165 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import me.zhennan.tool.easy.EasyServiceProxy;
+
+import static org.mockito.Mockito.*;
+import static org.junit.Assert.*;
+
+public class EasyFeatureManagerTest {
+
+
+    @Test
+    public void testManager() {
+
+        MockService MOCK_SERVICE = mock(MockService.class);
+
+        EasyServiceProxy<MockService> MOCK_PROXY = mock(EasyServiceProxy.class);
+        when(MOCK_PROXY.provide()).thenReturn(MOCK_SERVICE);
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        when(MOCK_FEATURE.contains(same(MockService.class))).thenReturn(true);
+        when(MOCK_FEATURE.create(same(MockService.class), any())).thenReturn(MOCK_PROXY);
+
+        EasyFeatureManager<Object> target = new EasyFeatureManager<>();
+        target.use(MOCK_FEATURE);
+
+        assertTrue(target.contains(MockService.class));
+
+        EasyServiceProxy<MockService> proxy = target.create(MockService.class, null);
+        assertEquals(proxy, MOCK_PROXY);
+
+        verify(MOCK_FEATURE, atLeast(1)).contains(same(MockService.class));
+        verify(MOCK_FEATURE, times(1)).create(same(MockService.class), any());
+    }
+
+    /**
+     * 服务类型与 Feature 的匹配结果会被索引. 包括没有命中的结果
+     */
+    @Test
+    public void testIndex() {
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        when(MOCK_FEATURE.contains(same(MockService.class))).thenReturn(true);
+
+        EasyFeatureManager<Object> target = new EasyFeatureManager<>();
+        target.use(MOCK_FEATURE);
+
+        assertTrue(target.contains(MockService.class));
+        assertTrue(target.contains(MockService.class));
+        assertFalse(target.contains(OtherService.class));
+        assertFalse(target.contains(OtherService.class));
+
+        verify(MOCK_FEATURE, times(1)).contains(same(MockService.class));
+        verify(MOCK_FEATURE, times(1)).contains(same(OtherService.class));
+
+        // 后注册的 Feature 需要刷新之前没有命中的索引
+        EasyProvider<Object> OTHER_FEATURE = mock(OtherProvider.class);
+        when(OTHER_FEATURE.contains(same(OtherService.class))).thenReturn(true);
+        target.use(OTHER_FEATURE);
+
+        assertTrue(target.contains(OtherService.class));
+        assertTrue(target.contains(MockService.class));
+
+        verify(OTHER_FEATURE, never()).contains(same(MockService.class));
+        verify(OTHER_FEATURE, times(1)).contains(same(OtherService.class));
+    }
+
+    /**
+     * 能够列举服务的 Feature 在 use 时建立索引, 查找时不再调用 contains. 更早注册的 Feature 仍然优先
+     */
+    @Test
+    public void testIndexOnUse() {
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        when(MOCK_FEATURE.contains(same(OtherService.class))).thenReturn(true);
+
+        EasyProvider<Object> OTHER_FEATURE = mock(OtherProvider.class);
+        when(OTHER_FEATURE.services()).thenReturn(new HashSet<>(Arrays.asList(MockService.class, OtherService.class)));
+
+        // TEST START ---------------------------------------------
+        EasyFeatureManager<Object> target = new EasyFeatureManager<>();
+        target.use(MOCK_FEATURE);
+        target.use(OTHER_FEATURE);
+        // ------------------------------------------------ TEST END
+
+        verify(MOCK_FEATURE, times(1)).contains(same(MockService.class));
+        verify(MOCK_FEATURE, times(1)).contains(same(OtherService.class));
+
+        target.create(MockService.class, null);
+        target.create(OtherService.class, null);
+        assertTrue(target.contains(MockService.class));
+
+        verify(OTHER_FEATURE, never()).contains(any());
+        verify(OTHER_FEATURE, times(1)).create(same(MockService.class), any());
+        verify(MOCK_FEATURE, times(1)).create(same(OtherService.class), any());
+        verify(MOCK_FEATURE, times(1)).contains(same(MockService.class));
+    }
+
+    /**
+     * Feature 在 use 之后新增服务时, 之前没有命中的索引失效
+     */
+    @Test
+    public void testInvalidate() {
+        Set<Class<?>> services = new HashSet<>(Arrays.asList(MockService.class));
+        List<Runnable> observers = new ArrayList<>();
+
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+        when(MOCK_FEATURE.services()).thenReturn(services);
+        doAnswer(invocation -> observers.add(invocation.getArgument(0))).when(MOCK_FEATURE).observe(any());
+
+        // TEST START ---------------------------------------------
+        EasyFeatureManager<Object> target = new EasyFeatureManager<>();
+        target.use(MOCK_FEATURE);
+        // ------------------------------------------------ TEST END
+
+        assertTrue(target.contains(MockService.class));
+        assertFalse(target.contains(OtherService.class));
+        assertEquals(1, observers.size());
+
+        // TEST START ---------------------------------------------
+        services.add(OtherService.class);
+        observers.get(0).run();
+        // ------------------------------------------------ TEST END
+
+        assertTrue(target.contains(OtherService.class));
+        assertTrue(target.contains(MockService.class));
+    }
+
+    /**
+     * 注册表中的 Feature 不需要通过 contains 检查
+     */
+    @Test
+    public void testRegistry() {
+        EasyProvider<Object> MOCK_FEATURE = mock(EasyProvider.class);
+
+        EasyProviderRegistry<Object> MOCK_REGISTRY = mock(EasyProviderRegistry.class);
+        when(MOCK_REGISTRY.find(same(MockService.class))).thenReturn(MOCK_FEATURE);
+
+        EasyFeatureManager<Object> target = new EasyFeatureManager<>();
+        target.useRegistry(MOCK_REGISTRY);
+
+        assertTrue(target.contains(MockService.class));
+        assertFalse(target.contains(OtherService.class));
+
+        target.create(MockService.class, null);
+
+        verify(MOCK_FEATURE, never()).contains(any());
+        verify(MOCK_FEATURE, times(1)).create(same(MockService.class), any());
+        verify(MOCK_REGISTRY, times(1)).find(same(MockService.class));
+    }
+
+    class MockService {}
+
+    class OtherService {}
+
+    interface OtherProvider extends EasyProvider<Object> {}
+
+
+}
+
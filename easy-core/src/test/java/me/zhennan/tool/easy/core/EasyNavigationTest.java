@@ -0,0 +1,64 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EasyNavigationTest {
+
+    /**
+     * 按跳转次数从高到低预测后继组件需要的服务, 不包括当前组件自己需要的服务, 不超过预算
+     */
+    @Test
+    public void testPredict() {
+        // TEST START ---------------------------------------------
+        EasyNavigation target = new EasyNavigation();
+        target.onRequire(MainPage.class, MockService.class);
+        target.onRequire(DetailPage.class, MockService.class);
+        target.onRequire(DetailPage.class, OtherService.class);
+        target.onRequire(SettingPage.class, ThirdService.class);
+
+        // Main -> Setting 一次, Main -> Detail 两次
+        target.onStartup(MainPage.class);
+        target.onStartup(SettingPage.class);
+        target.onStartup(MainPage.class);
+        target.onStartup(DetailPage.class);
+        target.onStartup(MainPage.class);
+        target.onStartup(DetailPage.class);
+        // ------------------------------------------------ TEST END
+
+        assertEquals(Arrays.asList(OtherService.class, ThirdService.class), target.predict(MainPage.class, 5));
+        assertEquals(Arrays.asList(OtherService.class), target.predict(MainPage.class, 1));
+        assertTrue(target.predict(MainPage.class, 0).isEmpty());
+        assertTrue("没有学习过的组件没有预测", target.predict(OtherService.class, 5).isEmpty());
+    }
+
+    /**
+     * 同一个组件连续启动不算跳转
+     */
+    @Test
+    public void testRepeatedStartup() {
+        // TEST START ---------------------------------------------
+        EasyNavigation target = new EasyNavigation();
+        target.onRequire(MainPage.class, MockService.class);
+        target.onStartup(MainPage.class);
+        target.onStartup(MainPage.class);
+        // ------------------------------------------------ TEST END
+
+        assertTrue(target.predict(MainPage.class, 5).isEmpty());
+    }
+
+    class MainPage { }
+
+    class DetailPage { }
+
+    class SettingPage { }
+
+    interface MockService { }
+
+    interface OtherService { }
+
+    interface ThirdService { }
+}
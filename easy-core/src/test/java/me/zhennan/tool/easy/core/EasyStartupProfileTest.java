@@ -0,0 +1,57 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EasyStartupProfileTest {
+
+    /**
+     * 按第一次记录的先后顺序保存, 重复的服务只记录一次
+     */
+    @Test
+    public void testAdd() {
+        // TEST START ---------------------------------------------
+        EasyStartupProfile target = new EasyStartupProfile();
+        assertTrue(target.isEmpty());
+        assertTrue(target.add(OtherService.class));
+        assertTrue(target.add(MockService.class));
+        assertFalse(target.add(OtherService.class));
+
+        try {
+            target.add(null);
+            fail("记录空的服务类型应该报错");
+        } catch (IllegalArgumentException ignored) { }
+        // ------------------------------------------------ TEST END
+
+        assertEquals(Arrays.asList(OtherService.class, MockService.class), target.services());
+    }
+
+    /**
+     * 写出后可以原样读回. 已经不存在的类直接跳过
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        EasyStartupProfile MOCK_PROFILE = new EasyStartupProfile();
+        MOCK_PROFILE.add(OtherService.class);
+        MOCK_PROFILE.add(MockService.class);
+
+        // TEST START ---------------------------------------------
+        StringWriter writer = new StringWriter();
+        MOCK_PROFILE.write(writer);
+        String content = writer.toString() + "\nme.zhennan.tool.easy.NotExistService\n";
+
+        EasyStartupProfile target = EasyStartupProfile.read(new StringReader(content), getClass().getClassLoader());
+        // ------------------------------------------------ TEST END
+
+        assertEquals(Arrays.asList(OtherService.class, MockService.class), target.services());
+    }
+
+    interface MockService { }
+
+    interface OtherService { }
+}
@@ -0,0 +1,142 @@
+package me.zhennan.tool.easy.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BiConsumer;
+
+import me.zhennan.tool.easy.EasyDispatcher;
+import me.zhennan.tool.easy.EasyServiceProxy;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 稳定状态 (重复解决依赖, 服务断开重连的通知, 向消费者分发) 不分配对象
+ */
+public class EasySteadyStateTest {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 10000;
+
+    private Runnable mPending = null;
+    private long mAccepted = 0;
+
+    @Test
+    public void testAllocationFree() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        Object MOCK_ROOT = new Object();
+        MockService MOCK_SERVICE = new MockService() { };
+        FakeProxy MOCK_PROXY = new FakeProxy();
+        EasyDispatcher MANUAL = task -> mPending = task;
+        BiConsumer MOCK_CONSUMER = (service, serviceClass) -> mAccepted++;
+
+        EasyFeatureManager<Object> manager = new EasyFeatureManager<>();
+        manager.use(new EasyProvider<Object>() {
+            @Override
+            public <EasyService> boolean contains(Class<EasyService> serviceClass) {
+                return MockService.class == serviceClass;
+            }
+
+            @Override
+            public <EasyService> EasyServiceProxy<EasyService> create(Class<EasyService> serviceClass, Object owner) {
+                return (EasyServiceProxy<EasyService>) MOCK_PROXY;
+            }
+        });
+
+        EasyComponentHost<Object> host = new EasyComponentHost<>(MOCK_ROOT, manager);
+        host.startup();
+        host.require(MockService.class, MOCK_CONSUMER);
+
+        EasyComponentClient client = new EasyComponentClient(new Object(), host);
+        client.startup();
+        for (int i = 0; i < 10; i++) {
+            client.require(MockService.class, (service, serviceClass) -> mAccepted++);
+        }
+        client.require(MockService.class, MANUAL, (service, serviceClass) -> mAccepted++);
+
+        MOCK_PROXY.publish(MOCK_SERVICE);
+        assertSame(MOCK_SERVICE, client.peek(MockService.class));
+
+        // TEST START ---------------------------------------------
+        long tid = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            steadyState(host, client, MOCK_PROXY, MOCK_SERVICE, MOCK_CONSUMER);
+        }
+
+        long before = bean.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ITERATIONS; i++) {
+            steadyState(host, client, MOCK_PROXY, MOCK_SERVICE, MOCK_CONSUMER);
+        }
+        long allocated = bean.getThreadAllocatedBytes(tid) - before;
+        // ------------------------------------------------ TEST END
+
+        assertTrue("Steady state allocated " + allocated + " bytes in " + ITERATIONS + " iterations", allocated < ITERATIONS);
+        assertTrue(0 < mAccepted);
+    }
+
+    private void steadyState(EasyComponentHost<Object> host, EasyComponentClient client, FakeProxy proxy, Object service,
+                             BiConsumer consumer) {
+        // 重复解决依赖
+        host.resolve(MockService.class, consumer);
+        if (service != client.peek(MockService.class)) {
+            fail("peek should hit the cached service");
+        }
+
+        // 断开并重连. 分发给所有消费者
+        proxy.publish(null);
+        proxy.publish(service);
+        mPending.run();
+    }
+
+    /**
+     * 已经启动的服务代理. 通过 {@link #publish(Object)} 模拟连接状态变化
+     */
+    private static class FakeProxy implements EasyServiceProxy<Object> {
+
+        private BiConsumer<Object, Class<Object>> mConsumer = null;
+        private Object mService = null;
+
+        void publish(Object service) {
+            mService = service;
+            if (null != mConsumer) {
+                mConsumer.accept(service, (Class<Object>) (Class<?>) MockService.class);
+            }
+        }
+
+        @Override
+        public Object provide() {
+            return mService;
+        }
+
+        @Override
+        public void asyncProvide(BiConsumer<Object, Class<Object>> consumer) {
+            mConsumer = consumer;
+        }
+
+        @Override
+        public boolean isStartup() {
+            return true;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public void startup() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    interface MockService { }
+}
@@ -0,0 +1,62 @@
+package me.zhennan.tool.easy.tool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EasyMetricsRecorderTest {
+
+    @Test
+    public void testHistogram() {
+        EasyHistogram target = new EasyHistogram();
+        assertEquals(0, target.percentile(50));
+
+        for (int i = 1; i <= 100; i++) {
+            target.record(i);
+        }
+        target.record(-1); // 负数按 0 记录
+
+        assertEquals(101, target.count());
+        assertEquals(5050, target.sum());
+        assertEquals(100, target.max());
+
+        // 分位数为所在桶的上界: 51 在 [32, 64) 桶内
+        assertEquals(63, target.percentile(50));
+        assertEquals(100, target.percentile(100));
+
+        target.reset();
+        assertEquals(0, target.count());
+        assertEquals(0, target.max());
+    }
+
+    @Test
+    public void testRecorder() {
+        EasyMetricsRecorder target = new EasyMetricsRecorder();
+
+        // TEST START ---------------------------------------------
+        target.onBind("MOCK_CONNECTION", 1000);
+        target.onBind("MOCK_CONNECTION", 3000);
+        target.onRetry("MOCK_CONNECTION", 1);
+        target.onRetry("MOCK_CONNECTION", 2);
+        target.onDisconnect("MOCK_CONNECTION");
+        target.onGiveUp("MOCK_CONNECTION", 2);
+        target.onFirstService(String.class, 500);
+        target.onConsumerCount(String.class, 2);
+        // ------------------------------------------------ TEST END
+
+        assertEquals(2, target.bindLatency().count());
+        assertEquals(2000, target.bindLatency("MOCK_CONNECTION").mean());
+        assertNull(target.bindLatency("OTHER_CONNECTION"));
+        assertEquals(2, target.retries().count());
+        assertEquals(1, target.disconnectCount());
+        assertEquals(1, target.disconnectCount("MOCK_CONNECTION"));
+        assertEquals(1, target.giveUpCount());
+        assertEquals(500, target.timeToFirstService(String.class).max());
+        assertEquals(2, target.consumerCount(String.class));
+        assertEquals(0, target.consumerCount(Integer.class));
+
+        target.reset();
+        assertEquals(0, target.bindLatency().count());
+        assertEquals(0, target.disconnectCount("MOCK_CONNECTION"));
+    }
+}
@@ -0,0 +1,92 @@
+package me.zhennan.tool.easy.tool;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.*;
+
+public class LocalEasyServiceProxyTest {
+
+    /**
+     * 启动之前不创建实例. 启动后第一次 provide 时创建, 之后复用. 关闭后丢弃实例并通知消费者
+     */
+    @Test
+    public void testLifeCycle() {
+        AtomicInteger created = new AtomicInteger();
+        BiConsumer<MockService, Class<MockService>> MOCK_CONSUMER = Mockito.mock(BiConsumer.class);
+
+        // TEST START ---------------------------------------------
+        LocalEasyServiceProxy<MockService> target = new LocalEasyServiceProxy<>(MockService.class, () -> {
+            created.incrementAndGet();
+            return new MockService();
+        });
+        target.asyncProvide(MOCK_CONSUMER);
+
+        assertTrue(target.isShutdown());
+        assertNull(target.provide());
+
+        target.startup();
+        assertTrue(target.isStartup());
+        assertEquals(0, created.get());
+
+        MockService service = target.provide();
+        assertNotNull(service);
+        assertSame(service, target.provide());
+        assertEquals(1, created.get());
+
+        target.shutdown();
+        assertTrue(target.isShutdown());
+        assertNull(target.provide());
+
+        target.startup();
+        assertNotSame(service, target.provide());
+        // ------------------------------------------------ TEST END
+
+        assertEquals(2, created.get());
+        Mockito.verify(MOCK_CONSUMER, Mockito.times(1)).accept(null, MockService.class);
+        Mockito.verify(MOCK_CONSUMER, Mockito.never()).accept(Mockito.notNull(), Mockito.any());
+    }
+
+    /**
+     * 多个线程同时 provide 只创建一个实例
+     */
+    @Test
+    public void testConcurrentProvide() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        LocalEasyServiceProxy<MockService> target = new LocalEasyServiceProxy<>(MockService.class, () -> {
+            created.incrementAndGet();
+            return new MockService();
+        });
+        target.startup();
+
+        // TEST START ---------------------------------------------
+        Future<MockService>[] results = new Future[8];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = executor.submit(() -> {
+                start.await();
+                return target.provide();
+            });
+        }
+        start.countDown();
+        // ------------------------------------------------ TEST END
+
+        for (Future<MockService> result : results) {
+            assertSame(target.provide(), result.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, created.get());
+        executor.shutdown();
+    }
+
+    static class MockService { }
+}
@@ -0,0 +1,4 @@
+# Easy#useGeneratedRegistry() loads the generated registry reflectively
+-keep class me.zhennan.tool.easy.generated.EasyGeneratedRegistry {
+    public <init>();
+}
@@ -0,0 +1,100 @@
+package me.zhennan.tool.easy.tool;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import me.zhennan.tool.easy.mock.SimpleService;
+import me.zhennan.tool.easy.mock.SimpleServiceAPI;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+@RunWith(AndroidJUnit4.class)
+public class EasyConnectionPoolTest {
+
+    @Test
+    public void testShareConnection() throws Exception {
+        Context MOCK_CONTEXT = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        EasyConnectionPool POOL = new EasyConnectionPool(null);
+
+        CountDownLatch connectionMadeLatch = new CountDownLatch(2);
+        CountDownLatch connectionResetLatch = new CountDownLatch(2);
+
+        EasyConnection.Callback<SimpleServiceAPI> CALLBACK = new EasyConnection.Callback<SimpleServiceAPI>() {
+            @Override
+            public void onConnectionMade(SimpleServiceAPI mockServiceAPI) {
+                assertNotNull(mockServiceAPI);
+                connectionMadeLatch.countDown();
+            }
+
+            @Override
+            public void onConnectionReset() {
+                connectionResetLatch.countDown();
+            }
+        };
+
+        EasyConnection<SimpleServiceAPI> first = newConnection(POOL);
+        EasyConnection<SimpleServiceAPI> second = newConnection(POOL);
+        first.callback(CALLBACK);
+        second.callback(CALLBACK);
+
+        first.make(MOCK_CONTEXT);
+        second.make(MOCK_CONTEXT);
+        connectionMadeLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionMadeLatch.getCount());
+
+        // 两个连接共享同一个真实连接
+        assertEquals(1, POOL.size());
+        assertSame(first.service(), second.service());
+
+        first.reset();
+        second.reset();
+        connectionResetLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionResetLatch.getCount());
+
+        // 最后一个订阅者释放后断开
+        assertEquals(0, POOL.size());
+    }
+
+    @Test
+    public void testUnbindAfterBindFailed() {
+        Context MOCK_CONTEXT = Mockito.mock(Context.class);
+        ServiceConnection MOCK_SUBSCRIBER = Mockito.mock(ServiceConnection.class);
+        Mockito.when(MOCK_CONTEXT.getApplicationContext()).thenReturn(MOCK_CONTEXT);
+        Mockito.when(MOCK_CONTEXT.bindService(any(Intent.class), anyInt(), any(Executor.class), any(ServiceConnection.class))).thenReturn(false);
+        Mockito.when(MOCK_CONTEXT.bindService(any(Intent.class), any(ServiceConnection.class), anyInt())).thenReturn(false);
+        EasyConnectionPool POOL = new EasyConnectionPool(null);
+
+        // TEST START ----
+        assertFalse(POOL.bind(MOCK_CONTEXT, new Intent("MOCK_ACTION"), 0, MOCK_SUBSCRIBER));
+        // ---- TEST END
+
+        // 连接失败也要释放系统持有的连接
+        Mockito.verify(MOCK_CONTEXT).unbindService(any(ServiceConnection.class));
+        assertEquals(0, POOL.size());
+    }
+
+    private EasyConnection<SimpleServiceAPI> newConnection(EasyConnectionPool pool) {
+        EasyConnection<SimpleServiceAPI> connection = new EasyConnection<SimpleServiceAPI>(){
+            @Override
+            protected Intent newConnectionIntent(Context context) {
+                return new Intent(context, SimpleService.class);
+            }
+        };
+        connection.connectionPool(pool);
+        return connection;
+    }
+}
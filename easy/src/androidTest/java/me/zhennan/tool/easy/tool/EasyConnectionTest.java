@@ -5,12 +5,16 @@ import android.content.Intent;
 import android.content.ServiceConnection;
 import android.os.Binder;
 import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.platform.app.InstrumentationRegistry;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -110,4 +114,203 @@ public class EasyConnectionTest {
 
     }
 
+    @Test
+    public void testConnectionOnBackgroundHandler() throws Exception {
+        Context MOCK_CONTEXT = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Handler HANDLER = EasyConnection.backgroundHandler();
+        assertNotEquals(Looper.getMainLooper(), HANDLER.getLooper());
+
+        EasyConnection<SimpleServiceAPI> target = new EasyConnection<SimpleServiceAPI>(HANDLER){
+            @Override
+            protected Intent newConnectionIntent(Context context) {
+                return new Intent(context, SimpleService.class);
+            }
+        };
+
+        CountDownLatch connectionMadeLatch = new CountDownLatch(1);
+        CountDownLatch connectionResetLatch = new CountDownLatch(1);
+
+        EasyConnection.Callback<SimpleServiceAPI> CALLBACK = new EasyConnection.Callback<SimpleServiceAPI>() {
+            @Override
+            public void onConnectionMade(SimpleServiceAPI mockServiceAPI) {
+                // 连接回调在调度线程上执行
+                if (HANDLER.getLooper().isCurrentThread()) {
+                    connectionMadeLatch.countDown();
+                }
+            }
+
+            @Override
+            public void onConnectionReset() {
+                if (HANDLER.getLooper().isCurrentThread()) {
+                    connectionResetLatch.countDown();
+                }
+            }
+        };
+
+        target.callback(CALLBACK);
+
+        target.make(MOCK_CONTEXT);
+        connectionMadeLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionMadeLatch.getCount());
+
+        target.reset();
+        connectionResetLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionResetLatch.getCount());
+    }
+
+    /**
+     * binder 死亡通知到达后立即按照断开处理, 随后系统的 onServiceDisconnected 被忽略
+     */
+    @Test
+    public void testWatchDeath() throws Exception {
+        Context MOCK_CONTEXT = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        IBinder MOCK_BINDER = Mockito.mock(IBinder.class);
+        ServiceConnection[] CONNECTION = new ServiceConnection[1];
+
+        EasyConnection<IBinder> target = new EasyConnection<IBinder>(){
+            @Override
+            protected void makeConnectionManually(Context context, ServiceConnection connection, Handler handler) {
+                CONNECTION[0] = connection;
+                triggerConnectionMadeManually(null, MOCK_BINDER);
+            }
+
+            @Override
+            protected void resetConnectionManually(Context context, ServiceConnection connection) {
+            }
+        };
+        target.retryPolicy(RetryPolicy.fixed(60 * 1000, 1));
+        target.watchDeath(true);
+
+        CountDownLatch connectionMadeLatch = new CountDownLatch(1);
+        CountDownLatch connectionResetLatch = new CountDownLatch(1);
+        int[] resetCount = new int[1];
+
+        target.callback(new EasyConnection.Callback<IBinder>() {
+            @Override
+            public void onConnectionMade(IBinder service) {
+                connectionMadeLatch.countDown();
+            }
+
+            @Override
+            public void onConnectionReset() {
+                resetCount[0]++;
+                connectionResetLatch.countDown();
+            }
+        });
+
+        target.make(MOCK_CONTEXT);
+        connectionMadeLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionMadeLatch.getCount());
+
+        ArgumentCaptor<IBinder.DeathRecipient> RECIPIENT = ArgumentCaptor.forClass(IBinder.DeathRecipient.class);
+        Mockito.verify(MOCK_BINDER, Mockito.timeout(3000)).linkToDeath(RECIPIENT.capture(), Mockito.eq(0));
+
+        // 远程进程死亡. 死亡通知在 binder 线程上到达
+        new Thread(() -> RECIPIENT.getValue().binderDied()).start();
+        connectionResetLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionResetLatch.getCount());
+        assertFalse(target.isConnected());
+        assertNull(target.service());
+
+        // 系统随后的断开回调不会重复处理
+        CountDownLatch disconnectedLatch = new CountDownLatch(1);
+        new Handler(Looper.getMainLooper()).post(() -> {
+            CONNECTION[0].onServiceDisconnected(null);
+            disconnectedLatch.countDown();
+        });
+        disconnectedLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(1, resetCount[0]);
+        assertEquals(1, target.retryAttempts());
+    }
+
+    /**
+     * ping 失败时按照断开处理
+     */
+    @Test
+    public void testHealthCheck() throws Exception {
+        Context MOCK_CONTEXT = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        IBinder MOCK_BINDER = Mockito.mock(IBinder.class);
+        Mockito.when(MOCK_BINDER.pingBinder()).thenReturn(true, false);
+
+        EasyConnection<IBinder> target = new EasyConnection<IBinder>(){
+            @Override
+            protected void makeConnectionManually(Context context, ServiceConnection connection, Handler handler) {
+                triggerConnectionMadeManually(null, MOCK_BINDER);
+            }
+
+            @Override
+            protected void resetConnectionManually(Context context, ServiceConnection connection) {
+            }
+        };
+        target.retryPolicy(RetryPolicy.fixed(60 * 1000, 1));
+        target.healthCheck(50);
+
+        CountDownLatch connectionResetLatch = new CountDownLatch(1);
+        target.callback(new EasyConnection.Callback<IBinder>() {
+            @Override
+            public void onConnectionMade(IBinder service) {
+            }
+
+            @Override
+            public void onConnectionReset() {
+                connectionResetLatch.countDown();
+            }
+        });
+
+        target.make(MOCK_CONTEXT);
+        connectionResetLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionResetLatch.getCount());
+        assertFalse(target.isConnected());
+        Mockito.verify(MOCK_BINDER, Mockito.times(2)).pingBinder();
+    }
+
+    /**
+     * 连接保持稳定时长之前断开, 连续重连次数继续增长
+     */
+    @Test
+    public void testStableWindow() throws Exception {
+        Context MOCK_CONTEXT = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        IBinder MOCK_BINDER = Mockito.mock(IBinder.class);
+        ServiceConnection[] CONNECTION = new ServiceConnection[1];
+
+        EasyConnection<IBinder> target = new EasyConnection<IBinder>(){
+            @Override
+            protected void makeConnectionManually(Context context, ServiceConnection connection, Handler handler) {
+                CONNECTION[0] = connection;
+                triggerConnectionMadeManually(null, MOCK_BINDER);
+            }
+
+            @Override
+            protected void resetConnectionManually(Context context, ServiceConnection connection) {
+            }
+        };
+        target.retryPolicy(RetryPolicy.fixed(10, RetryPolicy.UNLIMITED));
+        target.stableWindow(500);
+
+        CountDownLatch connectionMadeLatch = new CountDownLatch(3);
+        target.callback(new EasyConnection.Callback<IBinder>() {
+            @Override
+            public void onConnectionMade(IBinder service) {
+                connectionMadeLatch.countDown();
+                // 前两次连接建立后立即断开, 模拟服务反复崩溃
+                if (connectionMadeLatch.getCount() > 0) {
+                    new Handler(Looper.getMainLooper()).post(() -> CONNECTION[0].onServiceDisconnected(null));
+                }
+            }
+
+            @Override
+            public void onConnectionReset() {
+            }
+        });
+
+        target.make(MOCK_CONTEXT);
+        connectionMadeLatch.await(3, TimeUnit.SECONDS);
+        assertEquals(0, connectionMadeLatch.getCount());
+        assertEquals(2, target.retryAttempts());
+
+        // 保持稳定时长后清零
+        Thread.sleep(1000);
+        assertEquals(0, target.retryAttempts());
+        target.reset();
+    }
 }
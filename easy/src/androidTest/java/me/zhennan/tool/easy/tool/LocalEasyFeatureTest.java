@@ -0,0 +1,79 @@
+package me.zhennan.tool.easy.tool;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class LocalEasyFeatureTest {
+
+    @Test
+    public void testProvide() {
+        Context MOCK_CONTEXT = Mockito.mock(Context.class);
+
+        LocalEasyFeature target = new LocalEasyFeature()
+                .provide(MockService.class, context -> new MockService(context))
+                .provide(OtherService.class, EasyServiceScope.SINGLETON, context -> new OtherService());
+
+        assertTrue(target.contains(MockService.class));
+        assertTrue(target.contains(OtherService.class));
+        assertFalse(target.contains(Object.class));
+        assertEquals(EasyServiceScope.HOST, target.scopeOf(MockService.class));
+        assertEquals(EasyServiceScope.SINGLETON, target.scopeOf(OtherService.class));
+
+        EasyServiceProxy<MockService> proxy = target.create(MockService.class, MOCK_CONTEXT);
+        assertNull(proxy.provide());
+
+        // 启动后同步可用
+        proxy.startup();
+        MockService service = proxy.provide();
+        assertNotNull(service);
+        assertSame(MOCK_CONTEXT, service.context);
+
+        try {
+            target.create(Object.class, MOCK_CONTEXT);
+            fail("没有提供的服务应该报错");
+        } catch (IllegalArgumentException ignored) { }
+    }
+
+    /**
+     * use 之后 provide 的服务会通知使用方刷新索引
+     */
+    @Test
+    public void testProvideAfterUse() {
+        Runnable MOCK_OBSERVER = Mockito.mock(Runnable.class);
+
+        LocalEasyFeature target = new LocalEasyFeature()
+                .provide(MockService.class, context -> new MockService(context));
+        target.observe(MOCK_OBSERVER);
+
+        // TEST START ----
+        target.provide(OtherService.class, context -> new OtherService());
+        // ---- TEST END
+
+        Mockito.verify(MOCK_OBSERVER, Mockito.times(1)).run();
+        assertEquals(new HashSet<>(Arrays.asList(MockService.class, OtherService.class)), target.services());
+    }
+
+    static class MockService {
+        final Context context;
+
+        MockService(Context context) {
+            this.context = context;
+        }
+    }
+
+    static class OtherService { }
+}
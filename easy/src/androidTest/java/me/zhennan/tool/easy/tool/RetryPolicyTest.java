@@ -0,0 +1,71 @@
+package me.zhennan.tool.easy.tool;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class RetryPolicyTest {
+
+    @Test
+    public void testFixed() {
+        RetryPolicy target = RetryPolicy.fixed(500, 3);
+
+        assertEquals(500, target.delayOf(1));
+        assertEquals(500, target.delayOf(3));
+        assertEquals(RetryPolicy.GIVE_UP, target.delayOf(4));
+    }
+
+    @Test
+    public void testExponential() {
+        RetryPolicy target = RetryPolicy.exponential(100, 1000, 0, 10);
+
+        assertEquals(100, target.delayOf(1));
+        assertEquals(200, target.delayOf(2));
+        assertEquals(800, target.delayOf(4));
+        assertEquals(1000, target.delayOf(5)); // 不超过最大延时
+        assertEquals(1000, target.delayOf(10));
+        assertEquals(RetryPolicy.GIVE_UP, target.delayOf(11));
+
+        // 移位溢出时也保持最大延时
+        target = RetryPolicy.exponential(100, Long.MAX_VALUE, 0, RetryPolicy.UNLIMITED);
+        assertEquals(Long.MAX_VALUE, target.delayOf(100));
+    }
+
+    @Test
+    public void testJitter() {
+        RetryPolicy target = RetryPolicy.exponential(1000, 2000, 0.5, RetryPolicy.UNLIMITED);
+
+        for (int i = 0; i < 100; i++) {
+            long delay = target.delayOf(1);
+            assertTrue(delay >= 500 && delay <= 1500);
+        }
+
+        // 浮动后不超过最大延时
+        for (int i = 0; i < 100; i++) {
+            long delay = target.delayOf(2);
+            assertTrue(delay >= 1000 && delay <= 2000);
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            RetryPolicy.fixed(-1, 1);
+            fail("延时不能为负数");
+        } catch (IllegalArgumentException ignored) {}
+
+        try {
+            RetryPolicy.exponential(1000, 100, 0, 1);
+            fail("初始延时不能大于最大延时");
+        } catch (IllegalArgumentException ignored) {}
+
+        try {
+            RetryPolicy.exponential(100, 1000, 2, 1);
+            fail("浮动比例需要在 [0, 1] 之间");
+        } catch (IllegalArgumentException ignored) {}
+    }
+}
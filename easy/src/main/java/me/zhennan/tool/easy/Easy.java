@@ -18,6 +18,105 @@ public class Easy {
         facade.use(feature);
     }
 
+    public static void useRegistry(EasyFeatureRegistry registry) {
+        facade.useRegistry(registry);
+    }
+
+    /**
+     * 加载 easy-compiler 生成的默认注册表 {@link EasyFeatureRegistry#GENERATED_CLASS_NAME}
+     */
+    public static void useGeneratedRegistry() {
+        facade.useGeneratedRegistry();
+    }
+
+    /**
+     * 加载 easy-compiler 通过 {@code -Aeasy.registry=<class name>} 生成的注册表.
+     * 多个模块都生成注册表时, 除了使用默认类名的模块, 其他模块的注册表需要逐个通过这个方法加载
+     * @param className 注册表类名
+     */
+    public static void useGeneratedRegistry(String className) {
+        facade.useGeneratedRegistry(className);
+    }
+
+    /**
+     * 开启组件泄漏检测. 需要在 startup(Activity / Service) 之前调用
+     *
+     * 开启后, 每次 startup / shutdown 时检查之前启动的组件: 已经销毁 ({@link android.app.Activity#isDestroyed()})
+     * 却没有调用 shutdown 的 Activity, Easy 会自动关闭对应的组件并通知 listener.
+     *
+     * 检测依靠生命周期状态, 而不是等待 Activity 被回收: require 的消费者通常引用着 Activity,
+     * 组件 (以及宿主) 因此也间接引用着它, shutdown 之前 Activity 不会被回收.
+     * 组件表对 Activity / Service 使用弱引用, 只有消费者都没有引用它们时, 才会在它们被回收之后发现泄漏.
+     *
+     * @param listener 泄漏监听. 传入 null 关闭检测
+     */
+    public static void watchLeaks(EasyLeakListener listener) {
+        facade.watchLeaks(listener);
+    }
+
+    /**
+     * 设置生命周期指标监听
+     * @param listener 指标监听. 传入 null 关闭统计
+     */
+    public static void metrics(EasyMetrics listener) {
+        facade.metrics(listener);
+    }
+
+    /**
+     * @return 当前的指标监听. 没有设置时为 {@link EasyMetrics#NONE}
+     */
+    public static EasyMetrics metrics() {
+        return facade.metrics();
+    }
+
+    /**
+     * 开启冷启动预热. 需要在 startup(Application) 之前调用
+     *
+     * 记录 startup(Application) 之后 windowMillis 内 require 的服务以及先后顺序, 保存在应用私有目录.
+     * 下一次冷启动时在后台线程提前连接这些服务, 在 windowMillis 内没有被用到的连接随后释放.
+     *
+     * @param windowMillis 记录时长 (毫秒). 传入 0 关闭
+     */
+    public static void profileStartup(long windowMillis) {
+        facade.profileStartup(windowMillis);
+    }
+
+    /**
+     * 开启导航预测. 需要在 startup(Activity) 之前调用
+     *
+     * Easy 从 startup(Activity) 的先后顺序学习 Activity 之间的跳转, 以及每种 Activity require 的服务.
+     * Activity 启动时在后台线程提前连接它最可能跳转到的 Activity 需要的服务. 没有被用到的连接在 holdMillis 之后释放.
+     *
+     * @param budget 每次最多提前连接的服务数量. 传入 0 关闭
+     * @param holdMillis 没有被用到的连接保持的时长 (毫秒)
+     */
+    public static void predictNavigation(int budget, long holdMillis) {
+        facade.predictNavigation(budget, holdMillis);
+    }
+
+    /**
+     * 开启内存压力解绑. 需要在 startup(Application) 之前调用
+     *
+     * 应用进入后台时解绑 {@link EasyServicePriority#LOW} 的服务, 之后系统内存紧张时依次解绑更高优先级的服务.
+     * 应用在前台时即使内存紧张也不解绑, 避免当前界面的消费者收到 null.
+     * 被解绑服务的消费者收到 null, 下一次 require 时自动重新绑定.
+     *
+     * @param enabled 是否开启
+     * @see EasyFeature#priorityOf(Class)
+     */
+    public static void trimOnMemoryPressure(boolean enabled) {
+        facade.trimOnMemoryPressure(enabled);
+    }
+
+    /**
+     * 同时绑定的服务数量上限. 超过时解绑最近最少使用的服务 ({@link EasyServicePriority#CRITICAL} 除外)
+     *
+     * @param max 上限. 传入 0 不限制
+     */
+    public static void maxBoundServices(int max) {
+        facade.maxBoundServices(max);
+    }
+
     public static void startup(Application app) {
         facade.startup(app);
     }
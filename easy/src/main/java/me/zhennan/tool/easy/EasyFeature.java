@@ -2,13 +2,20 @@ package me.zhennan.tool.easy;
 
 import android.content.Context;
 
+import java.util.Collections;
+import java.util.Set;
+
+import me.zhennan.tool.easy.core.EasyProvider;
+
 /**
  * Easy模块的功能包接口
  *
  * 开发者可以为 Easy 模块开发功能包.
  * 使得 Easy 模块可以变得更强大
+ *
+ * 即以 Context 为所有者的 {@link EasyProvider}
  */
-public interface EasyFeature {
+public interface EasyFeature extends EasyProvider<Context> {
 
     /**
      * 检查当前 Feature 是否提供目标服务
@@ -16,8 +23,31 @@ public interface EasyFeature {
      * @param <EasyService> 服务类定义
      * @return
      */
+    @Override
     <EasyService> boolean contains(Class<EasyService> serviceClass);
 
+    /**
+     * 当前 Feature 提供的全部服务类型
+     *
+     * 能够列举时, {@code Easy.use} 时直接为这些服务建立索引, require 时不再调用 {@link #contains(Class)}.
+     *
+     * @return 服务类型. 默认为空, 即不能列举
+     */
+    @Override
+    default Set<Class<?>> services() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * 监听当前 Feature 提供的服务发生变化. 在 {@code Easy.use} 之后还会新增服务的 Feature 需要在变化时通知,
+     * 否则之前没有找到该服务的查找结果会一直被缓存
+     *
+     * @param observer 变化通知. 默认不会变化, 不需要保存
+     */
+    @Override
+    default void observe(Runnable observer) {
+    }
+
     /**
      * 构造目标类型的服务
      * @param serviceClass 服务类型
@@ -25,5 +55,62 @@ public interface EasyFeature {
      * @param <EasyService> 服务类型定义
      * @return 获取通过 EasyProxy 代理的目标服务实例
      */
+    @Override
     <EasyService> EasyServiceProxy<EasyService> create(Class<EasyService> serviceClass, Context context);
+
+    /**
+     * 服务的空闲保活时长
+     *
+     * 当服务的最后一个消费者被注销后, 服务代理会在该时长内保持连接.
+     * 在此期间重新 require 该服务会直接复用已有的代理. 超时后服务代理才会被关闭.
+     *
+     * @param serviceClass 服务类型
+     * @return 保活时长 (毫秒). 默认为 0, 即立即关闭
+     */
+    @Override
+    default long keepAliveMillis(Class<?> serviceClass) {
+        return 0;
+    }
+
+    /**
+     * 服务的作用域
+     *
+     * 轻量的服务可以声明为 {@link EasyServiceScope#COMPONENT} 或 {@link EasyServiceScope#TRANSIENT}, 随页面释放;
+     * 重量的服务可以声明为 {@link EasyServiceScope#SINGLETON}, 在进程内只连接一次.
+     *
+     * @param serviceClass 服务类型
+     * @return 作用域. 默认为 {@link EasyServiceScope#HOST}, 即由 Application 共享
+     */
+    @Override
+    default EasyServiceScope scopeOf(Class<?> serviceClass) {
+        return EasyServiceScope.HOST;
+    }
+
+    /**
+     * 服务依赖的其他 Easy 服务
+     *
+     * 服务只会在依赖全部可用之后才启动, 之后才分发给消费者. 连接过程中可以通过
+     * {@code Easy.from(applicationContext).peek(Dependency.class)} 直接取得依赖, 不需要在回调里层层 require.
+     *
+     * @param serviceClass 服务类型
+     * @return 依赖的服务类型. 默认没有依赖
+     */
+    @Override
+    default Set<Class<?>> dependenciesOf(Class<?> serviceClass) {
+        return Collections.emptySet();
+    }
+
+    /**
+     * 服务的优先级
+     *
+     * 开启 {@code Easy.trimOnMemoryPressure(true)} 后, 应用进入后台时解绑 {@link EasyServicePriority#LOW} 的服务,
+     * 系统内存紧张时依次解绑更高优先级的服务, 让远程进程可以被系统回收. 被解绑的服务在下一次 require 时自动重新绑定.
+     *
+     * @param serviceClass 服务类型
+     * @return 优先级. 默认为 {@link EasyServicePriority#NORMAL}
+     */
+    @Override
+    default EasyServicePriority priorityOf(Class<?> serviceClass) {
+        return EasyServicePriority.NORMAL;
+    }
 }
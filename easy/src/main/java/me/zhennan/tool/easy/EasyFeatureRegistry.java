@@ -0,0 +1,28 @@
+package me.zhennan.tool.easy;
+
+import android.content.Context;
+
+import me.zhennan.tool.easy.core.EasyProviderRegistry;
+
+/**
+ * Feature 注册表
+ *
+ * 由 easy-compiler 根据 {@link EasyProvides} 在编译期生成.
+ * 通过 {@link Easy#useRegistry(EasyFeatureRegistry)} 或 {@link Easy#useGeneratedRegistry()} 加载后,
+ * 服务类型到 Feature 的匹配不再需要逐个调用 {@link EasyFeature#contains(Class)}.
+ */
+public interface EasyFeatureRegistry extends EasyProviderRegistry<Context> {
+
+    /**
+     * 生成的注册表默认类名. 同一个应用中只能有一个模块使用默认类名, 其他模块通过 {@code -Aeasy.registry} 指定
+     */
+    String GENERATED_CLASS_NAME = "me.zhennan.tool.easy.generated.EasyGeneratedRegistry";
+
+    /**
+     * 查找提供目标服务的 Feature. Feature 在第一次被查找到时才会实例化
+     * @param serviceClass 服务类型
+     * @return 提供该服务的 Feature, 没有则返回 null
+     */
+    @Override
+    EasyFeature find(Class<?> serviceClass);
+}
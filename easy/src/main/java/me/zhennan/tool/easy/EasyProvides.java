@@ -0,0 +1,29 @@
+package me.zhennan.tool.easy;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明 EasyFeature 提供的服务类型
+ *
+ * 被标注的 Feature 会在编译期被 easy-compiler 收集到 {@link EasyFeatureRegistry} 中.
+ * 被标注的 Feature 需要提供 public 的无参构造方法.
+ *
+ * <pre>
+ * &#64;EasyProvides({AccountService.class, ProfileService.class})
+ * public class AccountFeature implements EasyFeature { ... }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface EasyProvides {
+
+    /**
+     * @return Feature 提供的服务类型
+     */
+    Class<?>[] value();
+}
@@ -0,0 +1,58 @@
+package me.zhennan.tool.easy.impl;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.Trace;
+
+import me.zhennan.tool.easy.core.EasyPlatform;
+
+/**
+ * Android 平台能力: 主线程为主 Looper, 延时任务投递到主线程, 系统追踪写入 {@link Trace}
+ */
+class AndroidPlatform extends EasyPlatform {
+
+    private volatile Handler mMainHandler = null;
+
+    private Handler mainHandler() {
+        Handler handler = mMainHandler;
+        if (null == handler) {
+            handler = new Handler(Looper.getMainLooper());
+            mMainHandler = handler;
+        }
+        return handler;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        Looper mainLooper = Looper.getMainLooper();
+        return null != mainLooper && mainLooper.isCurrentThread();
+    }
+
+    @Override
+    public void executeOnMainThread(Runnable task) {
+        mainHandler().post(task);
+    }
+
+    @Override
+    public Runnable postDelayed(Runnable task, long delayMillis) {
+        Handler handler = mainHandler();
+        handler.postDelayed(task, delayMillis);
+        return () -> handler.removeCallbacks(task);
+    }
+
+    @Override
+    public void beginSection(String section) {
+        Trace.beginSection(section);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public int processId() {
+        return Process.myPid();
+    }
+}
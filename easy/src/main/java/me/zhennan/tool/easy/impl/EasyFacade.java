@@ -1,20 +1,150 @@
 package me.zhennan.tool.easy.impl;
 
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.util.AtomicFile;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import me.zhennan.tool.easy.EasyFeature;
+import me.zhennan.tool.easy.EasyFeatureRegistry;
+import me.zhennan.tool.easy.EasyLeakListener;
+import me.zhennan.tool.easy.EasyMetrics;
 import me.zhennan.tool.easy.EasyResolver;
+import me.zhennan.tool.easy.EasyServicePriority;
+import me.zhennan.tool.easy.core.EasyEngine;
+import me.zhennan.tool.easy.core.EasyPlatform;
+import me.zhennan.tool.easy.core.EasyScopes;
+import me.zhennan.tool.easy.core.EasyStartupProfile;
 
+/**
+ * Easy 门面
+ *
+ * 以 Context 为所有者适配 {@link EasyEngine}: ApplicationContext 为根作用域,
+ * Activity / Service 为依附于它的客户端作用域. 创建时安装 {@link AndroidPlatform}.
+ *
+ * 开启冷启动预热后, startup(Application) 时读取上一次的 {@link EasyStartupProfile} 在后台线程预热,
+ * 同时记录本次的服务使用顺序, 记录窗口结束后写回 {@link #PROFILE_FILE}.
+ *
+ * startup(Application) 时注册 {@link ComponentCallbacks2}. 开启内存压力解绑后, 按 {@link #trimPriorityOf(int)}
+ * 把系统的 trim 级别换算为服务优先级, 解绑不高于该优先级的服务. 应用在前台时 (TRIM_MEMORY_RUNNING_*) 不解绑.
+ */
 public class EasyFacade {
 
-    private final EasyFeatureManager mFeatureManager = new EasyFeatureManager();
-    private final Map<Context, EasyComponent> mComponentMap = new HashMap<>();
+    private static final EasyScopes<Context> SCOPES = new EasyScopes<Context>() {
+        @Override
+        public Context rootOf(Context context) {
+            return context.getApplicationContext();
+        }
+
+        @Override
+        public boolean isDestroyed(Context context) {
+            return context instanceof Activity && ((Activity) context).isDestroyed();
+        }
+
+        @Override
+        public boolean isNavigable(Context context) {
+            return context instanceof Activity;
+        }
+    };
+
+    static final String PROFILE_FILE = "easy-startup-profile";
+
+    private final EasyEngine<Context> mEngine = new EasyEngine<>(SCOPES);
+    private volatile long mProfileMillis = 0;
+    private final AtomicBoolean mProfiled = new AtomicBoolean(false);
+    private volatile boolean mTrimOnMemoryPressure = false;
+    private final AtomicBoolean mTrimRegistered = new AtomicBoolean(false);
+
+    public EasyFacade() {
+        if (!(EasyPlatform.current() instanceof AndroidPlatform)) {
+            EasyPlatform.install(new AndroidPlatform());
+        }
+    }
 
     public void use(EasyFeature feature) {
-        mFeatureManager.use(feature);
+        mEngine.use(feature);
+    }
+
+    public void useRegistry(EasyFeatureRegistry registry) {
+        mEngine.useRegistry(registry);
+    }
+
+    public void useGeneratedRegistry() {
+        useGeneratedRegistry(EasyFeatureRegistry.GENERATED_CLASS_NAME);
+    }
+
+    public void useGeneratedRegistry(String className) {
+        if (null == className) {
+            throw new IllegalArgumentException("Given registry class name is Null");
+        }
+
+        Class<?> registryClass;
+        try {
+            registryClass = Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Generated registry["+className+"] not found. " +
+                    "Did you apply annotationProcessor \"easy-compiler\" on your module?", e);
+        }
+
+        if (!EasyFeatureRegistry.class.isAssignableFrom(registryClass)) {
+            throw new IllegalStateException("Generated registry["+className+"] is not a " + EasyFeatureRegistry.class.getName());
+        }
+
+        EasyFeatureRegistry registry;
+        try {
+            registry = (EasyFeatureRegistry) registryClass.getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Generated registry["+className+"] failed to initialize", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Generated registry["+className+"] can not be instantiated", e);
+        }
+        mEngine.useRegistry(registry);
+    }
+
+    public void watchLeaks(EasyLeakListener listener) {
+        mEngine.watchLeaks(listener);
+    }
+
+    public void metrics(EasyMetrics metrics) {
+        mEngine.metrics(metrics);
+    }
+
+    public EasyMetrics metrics() {
+        return mEngine.metrics();
+    }
+
+    public void profileStartup(long windowMillis) {
+        if (0 > windowMillis) {
+            throw new IllegalArgumentException("Given window is Negative");
+        }
+
+        mProfileMillis = windowMillis;
+    }
+
+    public void predictNavigation(int budget, long holdMillis) {
+        mEngine.predictNavigation(budget, holdMillis);
+    }
+
+    public void trimOnMemoryPressure(boolean enabled) {
+        mTrimOnMemoryPressure = enabled;
+    }
+
+    public void maxBoundServices(int max) {
+        mEngine.maxBound(max);
     }
 
     public void startup(Context context) {
@@ -22,23 +152,109 @@ public class EasyFacade {
             throw new IllegalArgumentException("Given context is Null");
         }
 
-        EasyComponent component = mComponentMap.get(context);
-        if (null == component) {
-            EasyComponentHost host = (EasyComponentHost) mComponentMap.get(context.getApplicationContext());
-            if (null == host) {
-                host = new EasyComponentHost(context, mFeatureManager);
-                mComponentMap.put(context.getApplicationContext(), host);
+        mEngine.startup(context);
+
+        if (context instanceof Application && mTrimRegistered.compareAndSet(false, true)) {
+            watchMemory((Application) context);
+        }
+
+        // 每个进程只在冷启动时记录一次
+        long windowMillis = mProfileMillis;
+        if (0 < windowMillis && context instanceof Application && mProfiled.compareAndSet(false, true)) {
+            profile((Application) context, windowMillis);
+        }
+    }
+
+    /**
+     * 预热上一次记录的服务, 并记录本次冷启动
+     */
+    private void profile(Application app, long windowMillis) {
+        EasyStartupProfile recording = new EasyStartupProfile();
+        mEngine.record(app, recording);
+
+        EasyPlatform platform = EasyPlatform.current();
+        platform.executeInBackground(() -> {
+            EasyStartupProfile previous = readProfile(app);
+            if (null != previous && !previous.isEmpty()) {
+                mEngine.prewarm(app, previous.services(), windowMillis);
+            }
+        });
+
+        platform.postDelayed(() -> {
+            mEngine.record(app, null);
+            platform.executeInBackground(() -> writeProfile(app, recording));
+        }, windowMillis);
+    }
+
+    private void watchMemory(Application app) {
+        app.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                EasyServicePriority priority = trimPriorityOf(level);
+                if (mTrimOnMemoryPressure && null != priority) {
+                    mEngine.trim(app, priority);
+                }
             }
 
-            if (context != context.getApplicationContext()) {
-                component = new EasyComponentClient(context, host);
-                mComponentMap.put(context, component);
-            } else {
-                component = host;
+            @Override
+            public void onLowMemory() {
+                // 前台进程也会收到. 与 TRIM_MEMORY_RUNNING_* 一样不解绑, 后台时会再收到 onTrimMemory
             }
+
+            @Override
+            public void onConfigurationChanged(Configuration configuration) {
+            }
+        });
+    }
+
+    /**
+     * 只在 {@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN} 及以上 (界面已经不可见) 解绑.
+     * TRIM_MEMORY_RUNNING_* 是应用仍在前台时收到的, 这时解绑会让当前界面的消费者收到 null, 因此不解绑
+     *
+     * @param level {@link ComponentCallbacks2} 的 trim 级别
+     * @return 该级别下解绑的最高优先级. 不需要解绑时为 null
+     */
+    static EasyServicePriority trimPriorityOf(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            return EasyServicePriority.HIGH;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            return EasyServicePriority.NORMAL;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            return EasyServicePriority.LOW;
+        }
+        return null;
+    }
+
+    private static AtomicFile profileFile(Context context) {
+        return new AtomicFile(new File(context.getNoBackupFilesDir(), PROFILE_FILE));
+    }
+
+    private static EasyStartupProfile readProfile(Context context) {
+        AtomicFile file = profileFile(context);
+        try (Reader reader = new InputStreamReader(file.openRead(), StandardCharsets.UTF_8)) {
+            return EasyStartupProfile.read(reader, context.getClassLoader());
+        } catch (FileNotFoundException e) {
+            // 第一次冷启动
+            return null;
+        } catch (IOException e) {
+            file.delete();
+            return null;
         }
+    }
 
-        component.startup();
+    private static void writeProfile(Context context, EasyStartupProfile profile) {
+        AtomicFile file = profileFile(context);
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            profile.write(writer);
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            if (null != stream) {
+                file.failWrite(stream);
+            }
+        }
     }
 
     public void shutdown(Context context) {
@@ -46,11 +262,7 @@ public class EasyFacade {
             throw new IllegalArgumentException("Given context is Null");
         }
 
-        EasyComponent component = mComponentMap.remove(context);
-
-        if (null != component) {
-            component.shutdown();
-        }
+        mEngine.shutdown(context);
     }
 
     public EasyResolver from(Context context) {
@@ -58,10 +270,6 @@ public class EasyFacade {
             throw new IllegalArgumentException("Given context is Null");
         }
 
-        if (!mComponentMap.containsKey(context)) {
-            throw new IllegalStateException("You must invoke Easy.start("+context+") before invoke this method");
-        }
-
-        return mComponentMap.get(context);
+        return mEngine.from(context);
     }
 }
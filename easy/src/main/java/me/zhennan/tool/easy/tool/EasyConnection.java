@@ -4,18 +4,33 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.ServiceConnection;
+import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
+import android.os.Process;
+import android.os.RemoteException;
+
+import java.util.NoSuchElementException;
 
 import java.util.concurrent.Executor;
 
+import me.zhennan.tool.easy.EasyMetrics;
+import me.zhennan.tool.easy.EasyTrace;
+
 /**
  * 简单服务连接器
  *
  * 1. 支持配置化连接参数 {@link #newConnectionIntent(Context)} {@link #newConnectionFlags()}
  * 2. 支持定制化连接 {@link #makeConnectionManually(Context, ServiceConnection, Handler)} {@link #resetConnectionManually(Context, ServiceConnection)}
- * 3. 支持服务断开后的重连策略
+ * 3. 支持服务断开后的重连策略 {@link #retryPolicy(RetryPolicy)}
+ * 4. 支持在指定线程上调度连接. 连接, 断开, 重连以及 ServiceConnection 回调都在构造时传入的 Handler 所在线程执行,
+ *    默认为主线程. 可以使用 {@link #backgroundHandler()} 把连接管理放到共享的后台线程
+ * 5. 支持通过连接池共享相同意图的连接 {@link #connectionPool(EasyConnectionPool)}
+ * 6. 连接耗时, 断开以及重连事件会上报给 {@link #metrics(EasyMetrics)} 设置的指标监听, 默认不统计
+ * 7. 支持更快地发现远程进程死亡 {@link #watchDeath(boolean)} {@link #healthCheck(long)}. 发现后立即按照断开处理,
+ *    不必等待系统的 onServiceDisconnected
  *
  * @param <Service> 目标服务类型
  */
@@ -28,29 +43,117 @@ public class EasyConnection<Service> {
     public interface Callback<Service> {
         void onConnectionMade(Service service);
         void onConnectionReset();
+
+        /**
+         * 重连策略放弃了重连
+         * @param attempts 放弃前已经连续重连的次数
+         */
+        default void onConnectionGiveUp(int attempts) {}
+    }
+
+    /**
+     * 默认重连策略: 从 1 秒开始指数退避, 最长 30 秒, 不限制次数
+     */
+    public static final RetryPolicy DEFAULT_RETRY_POLICY = RetryPolicy.exponential(1000, 30 * 1000, 0.2, RetryPolicy.UNLIMITED);
+
+    /**
+     * 默认稳定时长: 连接保持 10 秒后清零连续重连次数
+     */
+    public static final long DEFAULT_STABLE_MILLIS = 10 * 1000;
+
+    private static volatile Handler sBackgroundHandler = null;
+
+    /**
+     * @return 共享的后台连接线程. 第一次调用时创建
+     */
+    public static Handler backgroundHandler() {
+        Handler handler = sBackgroundHandler;
+        if (null == handler) {
+            synchronized (EasyConnection.class) {
+                handler = sBackgroundHandler;
+                if (null == handler) {
+                    HandlerThread thread = new HandlerThread("EasyConnection", Process.THREAD_PRIORITY_BACKGROUND);
+                    thread.start();
+                    handler = new Handler(thread.getLooper());
+                    sBackgroundHandler = handler;
+                }
+            }
+        }
+        return handler;
     }
 
     private final Handler mServiceHandler;
+    private final Executor mServiceExecutor;
     private final ConnectionScheduler scheduler;
     private final ServiceConnection mRealConnection = new ServiceConnection() {
         @Override
         public void onServiceConnected(ComponentName name, IBinder binder) {
+            // 手动连接或者低版本系统的回调可能不在调度线程上.
+            // 投递之后连接可能已经被重置或者重新发起, 执行时连接代数不同则丢弃
+            if (!scheduler.isRunOnSchedulerThread()) {
+                int generation = mGeneration;
+                mServiceHandler.post(() -> {
+                    if (generation == mGeneration) {
+                        onServiceConnected(name, binder);
+                    }
+                });
+                return;
+            }
+
             scheduler.reset();
+            mBinderDied = false;
+
+            // 系统自动恢复的连接没有对应的发起时间
+            if (0 != mConnectStartNanos) {
+                mMetrics.onBind(name(), System.nanoTime() - mConnectStartNanos);
+                mConnectStartNanos = 0;
+            }
 
             isServiceConnecting = false;
             isServiceConnected = true;
 
             // 执行连接业务
             internalConnectionMade(newServiceFromBinder(binder));
+
+            watchBinder(binder);
+
+            // 连接保持稳定一段时间后才清零连续重连次数, 否则服务反复崩溃时退避不会增长
+            if (isServiceConnected) {
+                long stable = mStableMillis;
+                if (0 < stable) {
+                    mServiceHandler.postDelayed(mStableCheck, stable);
+                } else {
+                    mRetryAttempts = 0;
+                }
+            }
         }
 
         @Override
         public void onServiceDisconnected(ComponentName name) {
+            if (!scheduler.isRunOnSchedulerThread()) {
+                int generation = mGeneration;
+                mServiceHandler.post(() -> {
+                    if (generation == mGeneration) {
+                        onServiceDisconnected(name);
+                    }
+                });
+                return;
+            }
+
+            // 已经通过 binder 死亡通知处理过了
+            if (mBinderDied) {
+                mBinderDied = false;
+                return;
+            }
+
+            unwatchBinder();
             isServiceConnecting = false;
             isServiceConnected = false;
 
+            mMetrics.onDisconnect(name());
+
             // 调度重连指令
-            scheduler.scheduleRetryConnection();
+            scheduleRetryConnection();
 
             // 执行断开业务
             internalConnectionReset();
@@ -58,19 +161,47 @@ public class EasyConnection<Service> {
     };
 
 
-    private Context mContext = null;
-    private boolean isServiceConnecting = false, isServiceConnected = false;
-    private Service mCache = null;
-    private Callback<Service> mCallback = null;
+    private volatile Context mContext = null;
+    private volatile boolean isServiceConnecting = false, isServiceConnected = false;
+    private volatile Service mCache = null;
+    private volatile Callback<Service> mCallback = null;
+
+    private volatile RetryPolicy mRetryPolicy = DEFAULT_RETRY_POLICY;
+    private volatile long mStableMillis = DEFAULT_STABLE_MILLIS;
+    private volatile EasyMetrics mMetrics = EasyMetrics.NONE;
+    private volatile EasyConnectionPool mConnectionPool = null;
+    // 建立连接时实际使用的连接池. 断开时需要使用同一个连接池
+    private EasyConnectionPool mBoundPool = null;
+    // 以下统计只在调度线程上修改
+    private volatile int mRetryAttempts = 0;
+    private volatile long mTotalRetryCount = 0, mGiveUpCount = 0;
+    // 指标统计. 只在调度线程上访问
+    private String mName = null;
+    private long mConnectStartNanos = 0;
+    // 连接代数. 每次发起或重置连接时加一, 只在调度线程上修改
+    private volatile int mGeneration = 0;
+
+    private volatile boolean mWatchDeath = false;
+    private volatile long mHealthCheckMillis = 0;
+    // 当前连接的 binder 以及它的死亡通知. 只在调度线程上访问
+    private IBinder mBinder = null;
+    private IBinder.DeathRecipient mDeathRecipient = null;
+    private boolean mBinderDied = false;
+    private final Runnable mHealthCheck = this::checkHealth;
+    private final Runnable mStableCheck = this::checkStable;
 
 
     public EasyConnection() {
         this(null);
     }
 
+    /**
+     * @param handler 连接调度线程. 为空时使用主线程
+     */
     public EasyConnection(Handler handler) {
         this.mServiceHandler = new Handler(null == handler ? Looper.getMainLooper() : handler.getLooper());
-        this.scheduler = new ConnectionScheduler(this::makeConnection, this::resetConnection, this::makeConnection);
+        this.mServiceExecutor = mServiceHandler::post;
+        this.scheduler = new ConnectionScheduler(mServiceHandler, this::makeConnection, this::resetConnection, this::retryConnection);
     }
 
     /**
@@ -102,6 +233,82 @@ public class EasyConnection<Service> {
         this.mCallback = callback;
     }
 
+    /**
+     * 设置重连策略
+     * @param policy 重连策略. 为空时使用 {@link #DEFAULT_RETRY_POLICY}
+     */
+    public final void retryPolicy(RetryPolicy policy) {
+        this.mRetryPolicy = null == policy ? DEFAULT_RETRY_POLICY : policy;
+    }
+
+    /**
+     * @param metrics 指标监听. 为空时不统计
+     */
+    public final void metrics(EasyMetrics metrics) {
+        this.mMetrics = null == metrics ? EasyMetrics.NONE : metrics;
+    }
+
+    /**
+     * 设置稳定时长. 连接建立后保持这么久才清零连续重连次数. 在下一次建立连接时生效
+     * @param stableMillis 稳定时长 (毫秒). 0 为连接成功立即清零
+     */
+    public final void stableWindow(long stableMillis) {
+        if (0 > stableMillis) {
+            throw new IllegalArgumentException("Given window is Negative");
+        }
+        this.mStableMillis = stableMillis;
+    }
+
+    /**
+     * 设置连接池. 设置后使用标准连接流程 ({@link #newConnectionIntent(Context)} 不为空) 的连接
+     * 通过连接池共享. 在下一次建立连接时生效
+     * @param pool 连接池. 为空时不使用连接池
+     */
+    public final void connectionPool(EasyConnectionPool pool) {
+        this.mConnectionPool = pool;
+    }
+
+    /**
+     * 连接建立时通过 {@link IBinder#linkToDeath(IBinder.DeathRecipient, int)} 监听远程进程死亡. 在下一次建立连接时生效
+     * @param enabled 是否监听
+     */
+    public final void watchDeath(boolean enabled) {
+        this.mWatchDeath = enabled;
+    }
+
+    /**
+     * 连接建立后按固定间隔 {@link IBinder#pingBinder()}. ping 是一次同步 IPC, 建议配合 {@link #backgroundHandler()} 使用.
+     * 在下一次建立连接时生效
+     * @param intervalMillis 检查间隔 (毫秒). 0 为不检查
+     */
+    public final void healthCheck(long intervalMillis) {
+        if (0 > intervalMillis) {
+            throw new IllegalArgumentException("Given interval is Negative");
+        }
+        this.mHealthCheckMillis = intervalMillis;
+    }
+
+    /**
+     * @return 当前连续重连的次数. 连接保持稳定时长 {@link #stableWindow(long)} 后清零
+     */
+    public final int retryAttempts() {
+        return mRetryAttempts;
+    }
+
+    /**
+     * @return 累计重连次数
+     */
+    public final long totalRetryCount() {
+        return mTotalRetryCount;
+    }
+
+    /**
+     * @return 累计放弃重连的次数
+     */
+    public final long giveUpCount() {
+        return mGiveUpCount;
+    }
+
     /**
      * 发起连接接口
      */
@@ -132,26 +339,82 @@ public class EasyConnection<Service> {
     }
 
     private void makeConnection() {
-
+        boolean traced = EasyTrace.begin(EasyTrace.SECTION_CONNECT);
         try {
+            mGeneration++;
             isServiceConnecting = true;
             Intent intent = newConnectionIntent(mContext);
+            if (null == mName) {
+                mName = nameOf(intent);
+            }
+            mConnectStartNanos = System.nanoTime();
+
             if (null == intent) {
                 makeConnectionManually(mContext, mRealConnection, mServiceHandler);
             } else {
-                boolean serviceFound = mContext.bindService(intent, mRealConnection, newConnectionFlags());
+                boolean serviceFound;
+                EasyConnectionPool pool = mConnectionPool;
+                if (null != pool) {
+                    serviceFound = pool.bind(mContext, intent, newConnectionFlags(), mRealConnection);
+                    mBoundPool = serviceFound ? pool : null;
+                } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    // 回调直接投递到调度线程, 不经过主线程
+                    serviceFound = mContext.bindService(intent, newConnectionFlags(), mServiceExecutor, mRealConnection);
+                } else {
+                    serviceFound = mContext.bindService(intent, mRealConnection, newConnectionFlags());
+                }
                 if (!serviceFound) {
+                    if (null == pool) {
+                        // bindService 失败也要 unbindService, 否则系统会一直持有这个连接
+                        EasyConnectionPool.unbindQuietly(mContext, mRealConnection);
+                    }
                     throw new RuntimeException("Given intent["+intent+"] can not connect to service");
                 }
             }
         } catch (Exception e) {
             isServiceConnecting = false;
+            mConnectStartNanos = 0;
             throw new IllegalStateException("Trying to make connection failed.", e);
+        } finally {
+            if (traced) {
+                EasyTrace.end();
+            }
         }
 
     }
 
+    private void retryConnection() {
+        try {
+            makeConnection();
+        } catch (IllegalStateException e) {
+            // 重连失败继续按照策略重连
+            scheduleRetryConnection();
+        }
+    }
+
+    private void scheduleRetryConnection() {
+        int attempt = mRetryAttempts + 1;
+        long delay = mRetryPolicy.delayOf(attempt);
+        if (0 > delay) {
+            scheduler.reset();
+            mGiveUpCount++;
+            mMetrics.onGiveUp(name(), mRetryAttempts);
+            internalConnectionGiveUp(mRetryAttempts);
+            return;
+        }
+
+        mRetryAttempts = attempt;
+        mTotalRetryCount++;
+        mMetrics.onRetry(name(), attempt);
+        scheduler.scheduleRetryConnection(delay);
+    }
+
     private void resetConnection() {
+        // 已经投递但还没有执行的连接回调不再生效
+        mGeneration++;
+        unwatchBinder();
+        mBinderDied = false;
+
         boolean cacheConnected = isServiceConnected;
         boolean cacheConnecting = isServiceConnecting;
 
@@ -161,6 +424,9 @@ public class EasyConnection<Service> {
             Intent intent = newConnectionIntent(mContext);
             if (null == intent) {
                 resetConnectionManually(mContext, mRealConnection);
+            } else if (null != mBoundPool) {
+                mBoundPool.unbind(mRealConnection);
+                mBoundPool = null;
             } else {
                 mContext.unbindService(mRealConnection);
             }
@@ -177,8 +443,93 @@ public class EasyConnection<Service> {
         }
 
         this.mContext = null;
+        this.mRetryAttempts = 0;
+        this.mConnectStartNanos = 0;
+    }
+
+
+    /**
+     * 监听 binder 死亡. 只在调度线程上调用
+     */
+    private void watchBinder(IBinder binder) {
+        if (null == binder || !isServiceConnected) {
+            return;
+        }
+
+        mBinder = binder;
+        if (mWatchDeath) {
+            IBinder.DeathRecipient recipient = () -> mServiceHandler.post(() -> onBinderDied(binder));
+            try {
+                binder.linkToDeath(recipient, 0);
+                mDeathRecipient = recipient;
+            } catch (RemoteException e) {
+                // 连接建立时远程进程已经死亡
+                onBinderDied(binder);
+                return;
+            }
+        }
+
+        long interval = mHealthCheckMillis;
+        if (0 < interval) {
+            mServiceHandler.postDelayed(mHealthCheck, interval);
+        }
+    }
+
+    private void unwatchBinder() {
+        mServiceHandler.removeCallbacks(mHealthCheck);
+        mServiceHandler.removeCallbacks(mStableCheck);
+
+        IBinder binder = mBinder;
+        IBinder.DeathRecipient recipient = mDeathRecipient;
+        mBinder = null;
+        mDeathRecipient = null;
+        if (null != binder && null != recipient) {
+            try {
+                binder.unlinkToDeath(recipient, 0);
+            } catch (NoSuchElementException ignored) { }
+        }
     }
 
+    private void checkHealth() {
+        IBinder binder = mBinder;
+        if (null == binder || !isServiceConnected) {
+            return;
+        }
+
+        if (binder.pingBinder()) {
+            mServiceHandler.postDelayed(mHealthCheck, mHealthCheckMillis);
+        } else {
+            onBinderDied(binder);
+        }
+    }
+
+    private void checkStable() {
+        if (isServiceConnected) {
+            mRetryAttempts = 0;
+        }
+    }
+
+    /**
+     * 远程进程死亡. 与 onServiceDisconnected 相同地处理, 随后到达的 onServiceDisconnected 被忽略
+     */
+    private void onBinderDied(IBinder binder) {
+        if (binder != mBinder || !isServiceConnected) {
+            return;
+        }
+
+        unwatchBinder();
+        mBinderDied = true;
+        isServiceConnecting = false;
+        isServiceConnected = false;
+
+        mMetrics.onDisconnect(name());
+
+        // 调度重连指令
+        scheduleRetryConnection();
+
+        // 执行断开业务
+        internalConnectionReset();
+    }
 
     private void internalConnectionMade(Service service) {
         mCache = service;
@@ -204,6 +555,34 @@ public class EasyConnection<Service> {
         }
     }
 
+    private void internalConnectionGiveUp(int attempts) {
+        // 内部回调
+        onConnectionGiveUp(attempts);
+
+        // 外部回调
+        if (null != mCallback) {
+            mCallback.onConnectionGiveUp(attempts);
+        }
+    }
+
+    /**
+     * @return 指标统计中的连接名称. 还没有发起过连接时为连接器类名
+     */
+    private String name() {
+        return null == mName ? getClass().getName() : mName;
+    }
+
+    private String nameOf(Intent intent) {
+        if (null == intent) {
+            return getClass().getName();
+        } else if (null != intent.getComponent()) {
+            return intent.getComponent().flattenToShortString();
+        } else if (null != intent.getAction()) {
+            return intent.getAction();
+        }
+        return intent.toString();
+    }
+
     @Override
     public String toString() {
         return "EasyConnection{isConnecting:"+isServiceConnecting+", isConnected:"+isServiceConnected+"}";
@@ -312,6 +691,12 @@ public class EasyConnection<Service> {
      */
     protected void onConnectionReset() {}
 
+    /**
+     * 放弃重连后的内部回调
+     * @param attempts 放弃前已经连续重连的次数
+     */
+    protected void onConnectionGiveUp(int attempts) {}
+
     /**
      * 连接调度器 (包内部类)
      */
@@ -320,7 +705,7 @@ public class EasyConnection<Service> {
         private final Handler scheduler;
         private final Runnable makeCommand, resetCommand, retryCommand;
 
-        ConnectionScheduler(Runnable makeCommand, Runnable resetCommand, Runnable retryCommand) {
+        ConnectionScheduler(Handler scheduler, Runnable makeCommand, Runnable resetCommand, Runnable retryCommand) {
 
             if (null == makeCommand) {
                 throw new NullPointerException("Given makeCommand is Null");
@@ -333,10 +718,10 @@ public class EasyConnection<Service> {
             this.makeCommand = makeCommand;
             this.resetCommand = resetCommand;
             this.retryCommand = retryCommand;
-            this.scheduler = new Handler(Looper.getMainLooper());
+            this.scheduler = scheduler;
         }
 
-        private boolean isRunOnMainThread() {
+        boolean isRunOnSchedulerThread() {
             return scheduler.getLooper().isCurrentThread();
         }
 
@@ -344,7 +729,7 @@ public class EasyConnection<Service> {
         public void scheduleMakeConnection() {
             reset();
 
-            if (isRunOnMainThread()) {
+            if (isRunOnSchedulerThread()) {
                 makeCommand.run();
             } else {
                 scheduler.post(makeCommand);
@@ -354,17 +739,17 @@ public class EasyConnection<Service> {
         public void scheduleResetConnection() {
             reset();
 
-            if (isRunOnMainThread()) {
+            if (isRunOnSchedulerThread()) {
                 resetCommand.run();
             } else {
                 scheduler.post(resetCommand);
             }
         }
 
-        public void scheduleRetryConnection() {
+        public void scheduleRetryConnection(long delayMillis) {
             reset();
 
-            scheduler.postDelayed(retryCommand, 1000);
+            scheduler.postDelayed(retryCommand, delayMillis);
         }
 
 
@@ -0,0 +1,268 @@
+package me.zhennan.tool.easy.tool;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * 共享服务连接池
+ *
+ * 相同的连接意图 (按照 {@link Intent#filterEquals(Intent)} 比较) 和连接参数只会 bindService 一次.
+ * 连接建立 / 断开时, 结果会分发给所有订阅的 ServiceConnection. 最后一个订阅者释放后才会 unbindService.
+ *
+ * 连接池使用 ApplicationContext 建立连接. 所以连接的生命周期与发起订阅的组件无关.
+ *
+ * @see EasyConnection#connectionPool(EasyConnectionPool)
+ */
+public class EasyConnectionPool {
+
+    private static volatile EasyConnectionPool sShared = null;
+
+    /**
+     * @return 进程内共享的连接池. 连接回调在主线程执行
+     */
+    public static EasyConnectionPool shared() {
+        EasyConnectionPool pool = sShared;
+        if (null == pool) {
+            synchronized (EasyConnectionPool.class) {
+                pool = sShared;
+                if (null == pool) {
+                    pool = new EasyConnectionPool(null);
+                    sShared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private final Handler mHandler;
+    private final Executor mExecutor;
+    private final Map<Key, Entry> mEntryMap = new HashMap<>();
+    private final Map<ServiceConnection, Entry> mSubscriberMap = new IdentityHashMap<>();
+
+    private static final ServiceConnection[] NO_SUBSCRIBERS = new ServiceConnection[0];
+
+    /**
+     * @param handler 连接回调线程. 为空时使用主线程
+     */
+    public EasyConnectionPool(Handler handler) {
+        this.mHandler = new Handler(null == handler ? Looper.getMainLooper() : handler.getLooper());
+        this.mExecutor = mHandler::post;
+    }
+
+    /**
+     * 订阅连接. 如果连接已经建立, 订阅者会立即收到 onServiceConnected
+     *
+     * @param context 上下文
+     * @param intent 连接意图
+     * @param flags 连接参数
+     * @param subscriber 订阅者
+     * @return 是否找到了目标服务
+     */
+    public boolean bind(Context context, Intent intent, int flags, ServiceConnection subscriber) {
+        if (null == context) {
+            throw new IllegalArgumentException("Given context is Null");
+        }
+
+        if (null == intent) {
+            throw new IllegalArgumentException("Given intent is Null");
+        }
+
+        if (null == subscriber) {
+            throw new IllegalArgumentException("Given subscriber is Null");
+        }
+
+        Entry entry;
+        synchronized (this) {
+            entry = mSubscriberMap.get(subscriber);
+            if (null != entry) {
+                // 已经订阅过了. 系统会在服务恢复后自动重新连接
+                return true;
+            }
+
+            Key key = new Key(intent, flags);
+            entry = mEntryMap.get(key);
+            if (null == entry) {
+                entry = new Entry(key, context.getApplicationContext(), intent, flags);
+                if (!entry.bind()) {
+                    return false;
+                }
+                mEntryMap.put(key, entry);
+            }
+
+            mSubscriberMap.put(subscriber, entry);
+        }
+
+        entry.subscribe(subscriber);
+        return true;
+    }
+
+    /**
+     * 取消订阅. 最后一个订阅者取消后断开连接
+     * @param subscriber 订阅者
+     */
+    public void unbind(ServiceConnection subscriber) {
+        Entry entry;
+        synchronized (this) {
+            entry = mSubscriberMap.remove(subscriber);
+            if (null == entry) {
+                return;
+            }
+
+            if (entry.unsubscribe(subscriber)) {
+                mEntryMap.remove(entry.key);
+                entry.unbind();
+            }
+        }
+    }
+
+    /**
+     * @return 当前实际建立的连接数量
+     */
+    public synchronized int size() {
+        return mEntryMap.size();
+    }
+
+    static void unbindQuietly(Context context, ServiceConnection connection) {
+        try {
+            context.unbindService(connection);
+        } catch (IllegalArgumentException ignored) {
+            // 系统没有记录这个连接
+        }
+    }
+
+    private static final class Key {
+        final Intent.FilterComparison intent;
+        final int flags;
+
+        Key(Intent intent, int flags) {
+            this.intent = new Intent.FilterComparison(new Intent(intent));
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return flags == key.flags && intent.equals(key.intent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(intent, flags);
+        }
+    }
+
+    /**
+     * 一个真实的服务连接
+     */
+    private final class Entry implements ServiceConnection {
+
+        final Key key;
+        final Context context;
+        final Intent intent;
+        final int flags;
+
+        // 以下状态在 Entry 自身上同步. 订阅者写时复制, 分发时直接遍历快照. 连接池保证同一个订阅者只订阅一次
+        private ServiceConnection[] subscribers = NO_SUBSCRIBERS;
+        private ComponentName name = null;
+        private IBinder binder = null;
+
+        Entry(Key key, Context context, Intent intent, int flags) {
+            this.key = key;
+            this.context = context;
+            this.intent = intent;
+            this.flags = flags;
+        }
+
+        boolean bind() {
+            boolean bound;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                bound = context.bindService(intent, flags, mExecutor, this);
+            } else {
+                bound = context.bindService(intent, this, flags);
+            }
+
+            if (!bound) {
+                // bindService 返回 false 时系统仍然持有这个连接, 需要 unbindService 释放
+                unbindQuietly(context, this);
+            }
+            return bound;
+        }
+
+        void unbind() {
+            context.unbindService(this);
+        }
+
+        void subscribe(ServiceConnection subscriber) {
+            ComponentName name;
+            IBinder binder;
+            synchronized (this) {
+                subscribers = Arrays.copyOf(subscribers, subscribers.length + 1);
+                subscribers[subscribers.length - 1] = subscriber;
+                name = this.name;
+                binder = this.binder;
+            }
+
+            if (null != binder) {
+                subscriber.onServiceConnected(name, binder);
+            }
+        }
+
+        /**
+         * @return 是否已经没有订阅者
+         */
+        synchronized boolean unsubscribe(ServiceConnection subscriber) {
+            for (int i = 0; i < subscribers.length; i++) {
+                if (subscribers[i] == subscriber) {
+                    ServiceConnection[] result = new ServiceConnection[subscribers.length - 1];
+                    System.arraycopy(subscribers, 0, result, 0, i);
+                    System.arraycopy(subscribers, i + 1, result, i, subscribers.length - i - 1);
+                    subscribers = result;
+                    break;
+                }
+            }
+            return 0 == subscribers.length;
+        }
+
+        private synchronized ServiceConnection[] snapshot() {
+            return subscribers;
+        }
+
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            synchronized (this) {
+                this.name = name;
+                this.binder = binder;
+            }
+
+            for (ServiceConnection subscriber : snapshot()) {
+                subscriber.onServiceConnected(name, binder);
+            }
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            synchronized (this) {
+                this.binder = null;
+            }
+
+            for (ServiceConnection subscriber : snapshot()) {
+                subscriber.onServiceDisconnected(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package me.zhennan.tool.easy.tool;
+
+import android.content.Context;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import me.zhennan.tool.easy.EasyFeature;
+import me.zhennan.tool.easy.EasyServiceProxy;
+import me.zhennan.tool.easy.EasyServiceScope;
+
+/**
+ * 进程内服务功能包
+ *
+ * 提供运行在本进程内的服务. 服务实例由 {@link LocalEasyServiceProxy} 按需创建, 不经过 bindService,
+ * require 时同步解决, {@code Easy.from(context).peek(serviceClass)} 在 require 之后立即可用.
+ *
+ * <pre>
+ * Easy.use(new LocalEasyFeature()
+ *         .provide(AccountService.class, context -&gt; new AccountServiceImpl(context))
+ *         .provide(Clock.class, EasyServiceScope.SINGLETON, context -&gt; new SystemClock()));
+ * </pre>
+ */
+public class LocalEasyFeature implements EasyFeature {
+
+    private final Map<Class<?>, Entry<?>> mEntryMap = new ConcurrentHashMap<>();
+    // use 之后 provide 新的服务时通知使用方
+    private final List<Runnable> mObservers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 提供宿主共享 ({@link EasyServiceScope#HOST}) 的进程内服务
+     *
+     * @param serviceClass 服务类型
+     * @param factory 以 ApplicationContext 创建服务实例
+     */
+    public <T> LocalEasyFeature provide(Class<T> serviceClass, Function<Context, ? extends T> factory) {
+        return provide(serviceClass, EasyServiceScope.HOST, factory);
+    }
+
+    /**
+     * 提供进程内服务
+     *
+     * @param serviceClass 服务类型
+     * @param scope 服务的作用域
+     * @param factory 以 ApplicationContext 创建服务实例
+     */
+    public <T> LocalEasyFeature provide(Class<T> serviceClass, EasyServiceScope scope, Function<Context, ? extends T> factory) {
+        if (null == serviceClass) {
+            throw new IllegalArgumentException("Given service class is Null");
+        }
+
+        if (null == scope) {
+            throw new IllegalArgumentException("Given scope is Null");
+        }
+
+        if (null == factory) {
+            throw new IllegalArgumentException("Given factory is Null");
+        }
+
+        mEntryMap.put(serviceClass, new Entry<>(scope, factory));
+        for (Runnable observer : mObservers) {
+            observer.run();
+        }
+        return this;
+    }
+
+    @Override
+    public <EasyService> boolean contains(Class<EasyService> serviceClass) {
+        return mEntryMap.containsKey(serviceClass);
+    }
+
+    @Override
+    public Set<Class<?>> services() {
+        return Collections.unmodifiableSet(mEntryMap.keySet());
+    }
+
+    @Override
+    public void observe(Runnable observer) {
+        if (null == observer) {
+            throw new IllegalArgumentException("Given observer is Null");
+        }
+
+        mObservers.add(observer);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <EasyService> EasyServiceProxy<EasyService> create(Class<EasyService> serviceClass, Context context) {
+        Entry<EasyService> entry = (Entry<EasyService>) mEntryMap.get(serviceClass);
+        if (null == entry) {
+            throw new IllegalArgumentException("Given service["+serviceClass+"] have not provided");
+        }
+
+        return new LocalEasyServiceProxy<>(serviceClass, () -> entry.factory.apply(context));
+    }
+
+    @Override
+    public EasyServiceScope scopeOf(Class<?> serviceClass) {
+        Entry<?> entry = mEntryMap.get(serviceClass);
+        return null == entry ? EasyServiceScope.HOST : entry.scope;
+    }
+
+    private static final class Entry<T> {
+        final EasyServiceScope scope;
+        final Function<Context, ? extends T> factory;
+
+        Entry(EasyServiceScope scope, Function<Context, ? extends T> factory) {
+            this.scope = scope;
+            this.factory = factory;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package me.zhennan.tool.easy.tool;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 服务断开后的重连策略
+ *
+ * @see EasyConnection#retryPolicy(RetryPolicy)
+ */
+public interface RetryPolicy {
+
+    /**
+     * 不限制重连次数
+     */
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * 放弃重连
+     */
+    long GIVE_UP = -1;
+
+    /**
+     * @param attempt 本次是连续的第几次重连, 从 1 开始. 连接保持稳定一段时间后重新计数
+     * @see EasyConnection#stableWindow(long)
+     * @return 重连前的延时 (毫秒). 返回 {@link #GIVE_UP} 表示放弃重连
+     */
+    long delayOf(int attempt);
+
+    /**
+     * 固定间隔重连
+     * @param delayMillis 重连间隔
+     * @param maxAttempts 最大连续重连次数
+     */
+    static RetryPolicy fixed(long delayMillis, int maxAttempts) {
+        if (0 > delayMillis) {
+            throw new IllegalArgumentException("Given delay is negative");
+        }
+
+        return attempt -> attempt > maxAttempts ? GIVE_UP : delayMillis;
+    }
+
+    /**
+     * 指数退避重连. 第 n 次重连的延时为 min(initialDelayMillis * 2^(n-1), maxDelayMillis),
+     * 并在此基础上随机浮动 ±jitter. 浮动后的延时同样不超过 maxDelayMillis
+     *
+     * @param initialDelayMillis 第一次重连的延时
+     * @param maxDelayMillis 最大延时
+     * @param jitter 随机浮动比例 [0, 1]
+     * @param maxAttempts 最大连续重连次数
+     */
+    static RetryPolicy exponential(long initialDelayMillis, long maxDelayMillis, double jitter, int maxAttempts) {
+        if (0 >= initialDelayMillis || initialDelayMillis > maxDelayMillis) {
+            throw new IllegalArgumentException("Given delay range is invalid");
+        }
+
+        if (0 > jitter || 1 < jitter) {
+            throw new IllegalArgumentException("Given jitter should be in [0, 1]");
+        }
+
+        return attempt -> {
+            if (attempt > maxAttempts) {
+                return GIVE_UP;
+            }
+
+            // 避免移位溢出
+            int shift = Math.min(attempt - 1, 62);
+            long delay = initialDelayMillis << shift;
+            if (0 >= delay || delay > maxDelayMillis || (delay >> shift) != initialDelayMillis) {
+                delay = maxDelayMillis;
+            }
+
+            if (0 < jitter) {
+                double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+                delay = Math.min((long) (delay * factor), maxDelayMillis);
+            }
+            return delay;
+        };
+    }
+}
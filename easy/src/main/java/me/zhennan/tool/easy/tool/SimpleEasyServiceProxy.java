@@ -12,6 +12,26 @@ public class SimpleEasyServiceProxy<T> implements EasyServiceProxy<T> {
     private final EasyConnection<T> connection;
     private final Class<T> serviceClass;
 
+    // 连接回调只创建一次. 重复的 asyncProvide 只替换消费者
+    private volatile BiConsumer<T, Class<T>> consumer = null;
+    private final EasyConnection.Callback<T> callback = new EasyConnection.Callback<T>() {
+        @Override
+        public void onConnectionMade(T service) {
+            BiConsumer<T, Class<T>> consumer = SimpleEasyServiceProxy.this.consumer;
+            if (null != consumer) {
+                consumer.accept(service, serviceClass);
+            }
+        }
+
+        @Override
+        public void onConnectionReset() {
+            BiConsumer<T, Class<T>> consumer = SimpleEasyServiceProxy.this.consumer;
+            if (null != consumer) {
+                consumer.accept(null, serviceClass);
+            }
+        }
+    };
+
     public SimpleEasyServiceProxy(Context context, Class<T> serviceClass, EasyConnection<T> connection){
         if (null == connection) {
             throw new IllegalArgumentException("Given connection is null");
@@ -37,17 +57,8 @@ public class SimpleEasyServiceProxy<T> implements EasyServiceProxy<T> {
 
     @Override
     public void asyncProvide(BiConsumer<T, Class<T>> consumer) {
-        connection.callback(null == consumer ? null : new EasyConnection.Callback<T>() {
-            @Override
-            public void onConnectionMade(T service) {
-                consumer.accept(service, serviceClass);
-            }
-
-            @Override
-            public void onConnectionReset() {
-                consumer.accept(null, serviceClass);
-            }
-        });
+        this.consumer = consumer;
+        connection.callback(null == consumer ? null : callback);
     }
 
     public boolean isStartup() {
@@ -0,0 +1,27 @@
+package me.zhennan.tool.easy.impl;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Test;
+
+import me.zhennan.tool.easy.EasyServicePriority;
+
+import static org.junit.Assert.*;
+
+public class EasyFacadeTest {
+
+    /**
+     * 应用在前台时 (TRIM_MEMORY_RUNNING_*) 不解绑. 界面不可见之后按级别解绑
+     */
+    @Test
+    public void testTrimPriorityOf() {
+        assertNull(EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE));
+        assertNull(EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW));
+        assertNull(EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL));
+
+        assertEquals(EasyServicePriority.LOW, EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN));
+        assertEquals(EasyServicePriority.LOW, EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND));
+        assertEquals(EasyServicePriority.NORMAL, EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_MODERATE));
+        assertEquals(EasyServicePriority.HIGH, EasyFacade.trimPriorityOf(ComponentCallbacks2.TRIM_MEMORY_COMPLETE));
+    }
+}